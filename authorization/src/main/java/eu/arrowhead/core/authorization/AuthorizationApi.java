@@ -18,6 +18,9 @@ import eu.arrowhead.common.database.IntraCloudAuthorization;
 import eu.arrowhead.common.exception.DataNotFoundException;
 import eu.arrowhead.common.messages.InterCloudAuthEntry;
 import eu.arrowhead.common.messages.IntraCloudAuthEntry;
+import eu.arrowhead.common.misc.BatchResult;
+import eu.arrowhead.common.misc.Page;
+import eu.arrowhead.common.misc.Pagination;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,10 +34,13 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
 import org.apache.log4j.Logger;
 
 @Path("authorization/mgmt")
@@ -53,22 +59,38 @@ public class AuthorizationApi {
   }
 
   /**
-   * Returns all the IntraCloud authorization rights from the database.
+   * Returns the IntraCloud authorization rights from the database, one page at a time (see {@link Pagination}), optionally filtered by the system
+   * name of the consumer and provider, and by the service definition.
    *
    * @return List<IntraCloudAuthorization>
    */
   @GET
   @Path("intracloud")
-  public List<IntraCloudAuthorization> getIntraCloudAuthRights() {
+  public Response getIntraCloudAuthRights(@QueryParam("consumer") String consumer, @QueryParam("provider") String provider,
+                                          @QueryParam("service") String service, @QueryParam("after") Integer after,
+                                          @QueryParam("limit") Integer limit, @QueryParam("stream") boolean stream, @Context UriInfo uriInfo,
+                                          @Context HttpHeaders headers) {
+    if (consumer != null) {
+      restrictionMap.put("consumer.systemName", consumer);
+    }
+    if (provider != null) {
+      restrictionMap.put("provider.systemName", provider);
+    }
+    if (service != null) {
+      restrictionMap.put("service.serviceDefinition", service);
+    }
+    if (stream) {
+      return Pagination.streamAll(IntraCloudAuthorization.class, restrictionMap, null, null, headers);
+    }
 
-    List<IntraCloudAuthorization> authRights = dm.getAll(IntraCloudAuthorization.class, restrictionMap);
-    if (authRights.isEmpty()) {
+    Page<IntraCloudAuthorization> authRights = dm.getPage(IntraCloudAuthorization.class, restrictionMap, "id", after, Pagination.getLimit(limit));
+    if (authRights.getTotalCount() == 0) {
       log.info("getIntraCloudAuthRights throws DataNotFoundException.");
       throw new DataNotFoundException("IntraCloud authorization rights were not found in the database.");
     }
 
-    log.info("getIntraCloudAuthRights successfully returns " + authRights.size() + " entries.");
-    return authRights;
+    log.info("getIntraCloudAuthRights successfully returns " + authRights.getItems().size() + " entries.");
+    return Pagination.toResponse(authRights, uriInfo);
   }
 
   /**
@@ -172,36 +194,50 @@ public class AuthorizationApi {
       consumer = dm.save(entry.getConsumer());
     }
 
-    ArrowheadSystem retrievedSystem;
-    ArrowheadService retrievedService;
-    List<IntraCloudAuthorization> savedAuthRights = new ArrayList<>();
+    List<ArrowheadService> retrievedServices = new ArrayList<>();
+    for (ArrowheadService service : entry.getServiceList()) {
+      restrictionMap.clear();
+      restrictionMap.put("serviceDefinition", service.getServiceDefinition());
+      ArrowheadService retrievedService = dm.get(ArrowheadService.class, restrictionMap);
+      if (retrievedService == null) {
+        log.info("Service " + service.toString() + " was not in the database, saving it now.");
+        retrievedService = dm.save(service);
+      }
+      retrievedServices.add(retrievedService);
+    }
+
+    List<ArrowheadSystem> retrievedProviders = new ArrayList<>();
     for (ArrowheadSystem providerSystem : entry.getProviderList()) {
       restrictionMap.clear();
       restrictionMap.put("systemName", providerSystem.getSystemName());
-      retrievedSystem = dm.get(ArrowheadSystem.class, restrictionMap);
+      ArrowheadSystem retrievedSystem = dm.get(ArrowheadSystem.class, restrictionMap);
       if (retrievedSystem == null) {
         log.info("Provider System " + providerSystem.getSystemName() + " was not in the database, saving it now.");
         retrievedSystem = dm.save(providerSystem);
       }
-      for (ArrowheadService service : entry.getServiceList()) {
-        restrictionMap.clear();
-        restrictionMap.put("serviceDefinition", service.getServiceDefinition());
-        retrievedService = dm.get(ArrowheadService.class, restrictionMap);
-        if (retrievedService == null) {
-          log.info("Service " + service.toString() + " was not in the database, saving it now.");
-          retrievedService = dm.save(service);
-        }
-        restrictionMap.clear();
-        restrictionMap.put("consumer", consumer);
-        restrictionMap.put("provider", retrievedSystem);
-        restrictionMap.put("service", retrievedService);
-        IntraCloudAuthorization authRight = dm.get(IntraCloudAuthorization.class, restrictionMap);
-        if (authRight == null) {
-          authRight = dm.save(new IntraCloudAuthorization(consumer, retrievedSystem, retrievedService));
-          savedAuthRights.add(authRight);
+      retrievedProviders.add(retrievedSystem);
+    }
+
+    // The existing rights of the consumer are fetched with one query, and the new ones are inserted in one transaction
+    restrictionMap.clear();
+    restrictionMap.put("consumer", consumer);
+    Set<String> existingRights = new HashSet<>();
+    for (IntraCloudAuthorization authRight : dm.getAllByKeys(IntraCloudAuthorization.class, restrictionMap, "provider", retrievedProviders)) {
+      existingRights.add(authRight.getProvider().getId() + ":" + authRight.getService().getId());
+    }
+    List<IntraCloudAuthorization> newAuthRights = new ArrayList<>();
+    for (ArrowheadSystem retrievedSystem : retrievedProviders) {
+      for (ArrowheadService retrievedService : retrievedServices) {
+        if (existingRights.add(retrievedSystem.getId() + ":" + retrievedService.getId())) {
+          newAuthRights.add(new IntraCloudAuthorization(consumer, retrievedSystem, retrievedService));
         }
       }
     }
+    BatchResult<IntraCloudAuthorization> result = dm.saveAll(newAuthRights);
+    if (result.hasFailures()) {
+      log.info("addSystemToAuthorized: " + result.getFailed().size() + " authorization rights were already in the database.");
+    }
+    List<IntraCloudAuthorization> savedAuthRights = result.getSucceeded();
 
     log.info("addSystemToAuthorized: " + savedAuthRights.size() + " authorization rights created.");
     GenericEntity<List<IntraCloudAuthorization>> entity = new GenericEntity<List<IntraCloudAuthorization>>(savedAuthRights) {
@@ -253,9 +289,7 @@ public class AuthorizationApi {
     }
     List<IntraCloudAuthorization> authRightsList = dm.getAll(IntraCloudAuthorization.class, restrictionMap);
     if (!authRightsList.isEmpty()) {
-      for (IntraCloudAuthorization authRight : authRightsList) {
-        dm.delete(authRight);
-      }
+      dm.deleteAll(authRightsList);
 
       log.info("deleteSystemRelations successfully returns.");
       return Response.ok().build();
@@ -266,22 +300,38 @@ public class AuthorizationApi {
   }
 
   /**
-   * Returns all the InterCloud authorization rights from the database.
+   * Returns the InterCloud authorization rights from the database, one page at a time (see {@link Pagination}), optionally filtered by the
+   * operator and name of the cloud, and by the service definition.
    *
    * @return List<InterCloudAuthorization>
    */
   @GET
   @Path("intercloud")
-  public List<InterCloudAuthorization> getInterCloudAuthRights() {
+  public Response getInterCloudAuthRights(@QueryParam("operator") String operator, @QueryParam("cloud_name") String cloudName,
+                                          @QueryParam("service") String service, @QueryParam("after") Integer after,
+                                          @QueryParam("limit") Integer limit, @QueryParam("stream") boolean stream, @Context UriInfo uriInfo,
+                                          @Context HttpHeaders headers) {
+    if (operator != null) {
+      restrictionMap.put("cloud.operator", operator);
+    }
+    if (cloudName != null) {
+      restrictionMap.put("cloud.cloudName", cloudName);
+    }
+    if (service != null) {
+      restrictionMap.put("service.serviceDefinition", service);
+    }
+    if (stream) {
+      return Pagination.streamAll(InterCloudAuthorization.class, restrictionMap, null, null, headers);
+    }
 
-    List<InterCloudAuthorization> authRights = dm.getAll(InterCloudAuthorization.class, restrictionMap);
-    if (authRights.isEmpty()) {
+    Page<InterCloudAuthorization> authRights = dm.getPage(InterCloudAuthorization.class, restrictionMap, "id", after, Pagination.getLimit(limit));
+    if (authRights.getTotalCount() == 0) {
       log.info("getInterCloudAuthRights throws DataNotFoundException.");
       throw new DataNotFoundException("InterCloud authorization rights were not found in the database.");
     }
 
-    log.info("getInterCloudAuthRights successfully returns " + authRights.size() + " entries.");
-    return authRights;
+    log.info("getInterCloudAuthRights successfully returns " + authRights.getItems().size() + " entries.");
+    return Pagination.toResponse(authRights, uriInfo);
   }
 
   /**
@@ -377,25 +427,36 @@ public class AuthorizationApi {
       cloud = dm.save(entry.getCloud());
     }
 
-    ArrowheadService retrievedService;
-    List<InterCloudAuthorization> savedAuthRights = new ArrayList<>();
+    List<ArrowheadService> retrievedServices = new ArrayList<>();
     for (ArrowheadService service : entry.getServiceList()) {
       restrictionMap.clear();
       restrictionMap.put("serviceDefinition", service.getServiceDefinition());
-      retrievedService = dm.get(ArrowheadService.class, restrictionMap);
+      ArrowheadService retrievedService = dm.get(ArrowheadService.class, restrictionMap);
       if (retrievedService == null) {
         log.info("Service was not in the database, saving it now." + service.toString());
         retrievedService = dm.save(service);
       }
-      restrictionMap.clear();
-      restrictionMap.put("cloud", cloud);
-      restrictionMap.put("service", retrievedService);
-      InterCloudAuthorization authRight = dm.get(InterCloudAuthorization.class, restrictionMap);
-      if (authRight == null) {
-        authRight = dm.save(new InterCloudAuthorization(cloud, retrievedService));
-        savedAuthRights.add(authRight);
+      retrievedServices.add(retrievedService);
+    }
+
+    restrictionMap.clear();
+    restrictionMap.put("cloud", cloud);
+    Set<Integer> serviceIds = new HashSet<>();
+    for (ArrowheadService retrievedService : retrievedServices) {
+      serviceIds.add(retrievedService.getId());
+    }
+    Set<Object> existingServiceIds = dm.getExistingKeys(InterCloudAuthorization.class, restrictionMap, "service.id", serviceIds);
+    List<InterCloudAuthorization> newAuthRights = new ArrayList<>();
+    for (ArrowheadService retrievedService : retrievedServices) {
+      if (existingServiceIds.add(retrievedService.getId())) {
+        newAuthRights.add(new InterCloudAuthorization(cloud, retrievedService));
       }
     }
+    BatchResult<InterCloudAuthorization> result = dm.saveAll(newAuthRights);
+    if (result.hasFailures()) {
+      log.info("addCloudToAuthorized: " + result.getFailed().size() + " authorization rights were already in the database.");
+    }
+    List<InterCloudAuthorization> savedAuthRights = result.getSucceeded();
 
     log.info("addCloudToAuthorized: " + savedAuthRights.size() + " authorization rights created.");
     GenericEntity<List<InterCloudAuthorization>> entity = new GenericEntity<List<InterCloudAuthorization>>(savedAuthRights) {
@@ -445,9 +506,7 @@ public class AuthorizationApi {
     restrictionMap.put("cloud", cloud);
     List<InterCloudAuthorization> authRightsList = dm.getAll(InterCloudAuthorization.class, restrictionMap);
     if (!authRightsList.isEmpty()) {
-      for (InterCloudAuthorization authRight : authRightsList) {
-        dm.delete(authRight);
-      }
+      dm.deleteAll(authRightsList);
 
       log.info("deleteCloudRelations successfully returns.");
       return Response.ok().build();
@@ -12,6 +12,7 @@ package eu.arrowhead.core.authorization;
 import eu.arrowhead.common.ArrowheadMain;
 import eu.arrowhead.common.misc.CoreSystem;
 import eu.arrowhead.common.misc.SecurityUtils;
+import eu.arrowhead.core.authorization.filter.AccessControlFilter;
 import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.util.Arrays;
@@ -29,9 +30,8 @@ public class AuthorizationMain extends ArrowheadMain {
     privateKey = SecurityUtils.getPrivateKey(keyStore, props.getProperty("keystorepass"));
     enableAuthForCloud = props.getBooleanProperty("enable_auth_for_cloud", false);
 
-    Set<Class<?>> classes = new HashSet<>(Arrays.asList(AuthorizationResource.class, AuthorizationApi.class));
-    String[] packages = {"eu.arrowhead.common", "eu.arrowhead.core.authorization.filter"};
-    init(CoreSystem.AUTHORIZATION, args, classes, packages);
+    Set<Class<?>> classes = new HashSet<>(Arrays.asList(AuthorizationResource.class, AuthorizationApi.class, AccessControlFilter.class));
+    init(CoreSystem.AUTHORIZATION, args, classes);
 
     listenForInput();
   }
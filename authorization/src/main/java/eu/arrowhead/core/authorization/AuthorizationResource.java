@@ -26,7 +26,10 @@ import eu.arrowhead.common.messages.TokenGenerationRequest;
 import eu.arrowhead.common.messages.TokenGenerationResponse;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.PUT;
@@ -91,20 +94,25 @@ public class AuthorizationResource {
       return Response.status(Status.OK).entity(response).build();
     }
 
-    IntraCloudAuthorization authRight;
-    int authorizedCount = 0;
+    // Resolving the providers and checking their authorization rights takes 2 queries, regardless of the number of providers
+    Set<String> providerNames = new HashSet<>();
     for (ArrowheadSystem provider : request.getProviders()) {
-      restrictionMap.clear();
-      restrictionMap.put("systemName", provider.getSystemName());
-      ArrowheadSystem retrievedSystem = dm.get(ArrowheadSystem.class, restrictionMap);
+      providerNames.add(provider.getSystemName());
+    }
+    Map<String, Integer> providerIds = new HashMap<>();
+    for (ArrowheadSystem retrievedSystem : dm.getAllByKeys(ArrowheadSystem.class, "systemName", providerNames)) {
+      providerIds.put(retrievedSystem.getSystemName(), retrievedSystem.getId());
+    }
 
-      restrictionMap.clear();
-      restrictionMap.put("consumer", consumer);
-      restrictionMap.put("provider", retrievedSystem);
-      restrictionMap.put("service", service);
-      authRight = dm.get(IntraCloudAuthorization.class, restrictionMap);
+    restrictionMap.clear();
+    restrictionMap.put("consumer", consumer);
+    restrictionMap.put("service", service);
+    Set<Object> authorizedProviderIds = dm.getExistingKeys(IntraCloudAuthorization.class, restrictionMap, "provider.id", providerIds.values());
 
-      if (authRight == null) {
+    int authorizedCount = 0;
+    for (ArrowheadSystem provider : request.getProviders()) {
+      Integer providerId = providerIds.get(provider.getSystemName());
+      if (providerId == null || !authorizedProviderIds.contains(providerId)) {
         authorizationState.put(provider, false);
       } else {
         authorizationState.put(provider, true);
@@ -14,6 +14,7 @@ import eu.arrowhead.common.database.ArrowheadCloud;
 import eu.arrowhead.common.database.ArrowheadSystem;
 import eu.arrowhead.common.exception.ArrowheadException;
 import eu.arrowhead.common.exception.AuthException;
+import eu.arrowhead.common.json.JsonCodec;
 import eu.arrowhead.common.messages.ArrowheadToken;
 import eu.arrowhead.common.messages.RawTokenInfo;
 import eu.arrowhead.common.messages.TokenGenerationRequest;
@@ -100,7 +101,7 @@ class TokenGenerationService {
       }
 
       // There is an upper limit for the size of the token info, skip providers which exceeds this limit
-      String json = Utility.toPrettyJson(null, rawTokenInfo);
+      String json = JsonCodec.toJson(rawTokenInfo);
       if (json == null) {
         log.error("RawTokenInfo serialization failed. Skipped provider.");
         continue;
@@ -61,7 +61,7 @@ public class AccessControlFilter implements ContainerRequestFilter {
 
     String[] serverFields = serverCN.split("\\.", 2);
     // serverFields contains: coreSystemName, cloudName.operator.arrowhead.eu
-    if (requestTarget.contains("mgmt")) {
+    if (requestTarget.contains("mgmt") || requestTarget.endsWith("metrics")) {
       // Only the local System Operator can use these methods
       return clientCN.equalsIgnoreCase("sysop." + serverFields[1]);
     } else {
@@ -0,0 +1,167 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.messages;
+
+import eu.arrowhead.common.database.ArrowheadService;
+import eu.arrowhead.common.database.ArrowheadSystem;
+import eu.arrowhead.common.database.ServiceRegistryEntry;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares the mandatory field validation of {@link ArrowheadBase} (cached per class field getters, only the mandatory fields are read) to the former
+ * reflective implementation (every declared field read with Field.get on every call). It first checks that both implementations find the same
+ * missing fields, then measures the average time of one check. It is in the package of ArrowheadBase to reach its protected methods.
+ * <p>
+ * Usage: <tt>mvn -P benchmark package</tt>, then <tt>java -jar benchmark/target/benchmark-4.0.jar [iterations] [rounds]</tt>
+ */
+public final class MandatoryFieldsBenchmark {
+
+  private static final int DEFAULT_ITERATIONS = 5_000_000;
+  private static final int DEFAULT_ROUNDS = 6;
+
+  private MandatoryFieldsBenchmark() throws AssertionError {
+    throw new AssertionError("Arrowhead Benchmark:MandatoryFieldsBenchmark is a non-instantiable class");
+  }
+
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+
+    ArrowheadSystem system = new ArrowheadSystem("client", "localhost", 8080, null);
+    ArrowheadSystem partialSystem = new ArrowheadSystem("client", null, null, "auth");
+    ArrowheadService service = new ArrowheadService("temp", Collections.singletonList("JSON"), new HashMap<>());
+    ArrowheadService emptyService = new ArrowheadService(null, new ArrayList<>(), null);
+    ServiceRegistryEntry entry = new ServiceRegistryEntry(service, system, "uri");
+    Map<String, Boolean> flags = new HashMap<>();
+    flags.put("overrideStore", true);
+    ServiceRequestForm requestForm = new ServiceRequestForm.Builder(system).requestedService(service).orchestrationFlags(flags).build();
+
+    List<Set<String>> mandatoryFieldSets = Arrays.asList(
+        fields("systemName", "address", "port"), fields("ArrowheadSystem:address", "ArrowheadSystem:port", "authenticationInfo", "systemName"),
+        fields("serviceDefinition", "interfaces", "serviceMetadata"), fields("providedService", "provider", "serviceURI", "version", "nonexistent"),
+        fields("requesterSystem", "requestedService", "orchestrationFlags", "preferredProviders", "ArrowheadSystem:port"));
+    for (ArrowheadBase object : Arrays.asList(system, partialSystem, service, emptyService, entry, requestForm)) {
+      if (!reflectiveNonNullFields(object).equals(object.getFieldNamesWithNonNullValue())) {
+        throw new AssertionError("Different non-null fields: " + object);
+      }
+      for (Set<String> mandatoryFields : mandatoryFieldSets) {
+        Set<String> expected = reflectiveMissingFields(object, mandatoryFields);
+        Set<String> actual = missingFields(object, mandatoryFields);
+        if (!expected.equals(actual)) {
+          throw new AssertionError("Different missing fields of " + object + ": " + expected + " and " + actual);
+        }
+      }
+    }
+    System.out.println("Both implementations find the same missing fields.");
+
+    ArrowheadBase[] objects = {system, service, entry, requestForm};
+    List<Set<String>> mandatoryFields = Arrays.asList(mandatoryFieldSets.get(0), mandatoryFieldSets.get(2), fields("providedService", "provider"),
+                                                      fields("requesterSystem", "orchestrationFlags"));
+    //The results are summed up and printed, so the JIT can not eliminate the measured calls
+    long sink = 0;
+    for (int round = 0; round < rounds; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        sink += reflectiveMissingFields(objects[i & 3], mandatoryFields.get(i & 3)).size();
+      }
+      long reflectiveCheck = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        sink += missingFields(objects[i & 3], mandatoryFields.get(i & 3)).size();
+      }
+      long cachedCheck = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        sink += reflectiveNonNullFields(objects[i & 3]).size();
+      }
+      long reflectiveNames = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        sink += objects[i & 3].getFieldNamesWithNonNullValue().size();
+      }
+      long cachedNames = System.nanoTime() - start;
+
+      System.out.printf("Round %d: mandatory field check: reflective %.0f ns, cached getters %.0f ns | all non-null field names: reflective %.0f ns, "
+                            + "cached getters %.0f ns%n", round + 1, (double) reflectiveCheck / iterations, (double) cachedCheck / iterations,
+                        (double) reflectiveNames / iterations, (double) cachedNames / iterations);
+    }
+    System.out.println("Checksum: " + sink);
+  }
+
+  private static Set<String> fields(String... names) {
+    return new HashSet<>(Arrays.asList(names));
+  }
+
+  //The missingFields logic of the messages and entities
+  private static Set<String> missingFields(ArrowheadBase object, Set<String> mandatoryFields) {
+    Set<String> mf = new HashSet<>(mandatoryFields);
+    object.removeFieldsWithValue(mf, isPrefixed(object, mf));
+    return mf;
+  }
+
+  //The former missingFields logic, with the reflective getFieldNamesWithNonNullValue
+  private static Set<String> reflectiveMissingFields(ArrowheadBase object, Set<String> mandatoryFields) {
+    Set<String> mf = new HashSet<>(mandatoryFields);
+    Set<String> nonNullFields = reflectiveNonNullFields(object);
+    if (isPrefixed(object, mf)) {
+      nonNullFields = object.prefixFieldNames(nonNullFields);
+    }
+    mf.removeAll(nonNullFields);
+    return mf;
+  }
+
+  private static boolean isPrefixed(ArrowheadBase object, Set<String> mandatoryFields) {
+    for (String field : mandatoryFields) {
+      if (field.startsWith(object.getClass().getSimpleName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  //The former implementation of ArrowheadBase.getFieldNamesWithNonNullValue
+  private static Set<String> reflectiveNonNullFields(ArrowheadBase object) {
+    Field[] fields = object.getClass().getDeclaredFields();
+    Set<String> names = new HashSet<>(fields.length);
+    for (Field field : fields) {
+      field.setAccessible(true);
+      try {
+        Object value = field.get(object);
+        if (value instanceof Collection<?>) {
+          if (!((Collection<?>) value).isEmpty()) {
+            names.add(field.getName());
+          }
+        } else if (value instanceof Map<?, ?>) {
+          if (!((Map<?, ?>) value).isEmpty()) {
+            names.add(field.getName());
+          }
+        } else if (value != null) {
+          names.add(field.getName());
+        }
+      } catch (IllegalAccessException e) {
+        throw new AssertionError(field.toString() + " field is not accessible!", e);
+      }
+    }
+    return names;
+  }
+
+}
@@ -19,8 +19,7 @@ public class ChoreographerMain extends ArrowheadMain {
 
   private ChoreographerMain(String[] args) {
     Set<Class<?>> classes = new HashSet<>(Collections.singleton(ChoreographerResource.class));
-    String[] packages = {"eu.arrowhead.common"};
-    init(CoreSystem.CHOREOGRAPHER, args, classes, packages);
+    init(CoreSystem.CHOREOGRAPHER, args, classes);
     listenForInput();
   }
 
@@ -9,16 +9,40 @@
 
 package eu.arrowhead.common;
 
+import eu.arrowhead.common.api.HttpClientApi;
+import eu.arrowhead.common.api.MetricsApi;
+import eu.arrowhead.common.api.ServerApi;
 import eu.arrowhead.common.database.ArrowheadService;
 import eu.arrowhead.common.database.ArrowheadSystem;
 import eu.arrowhead.common.database.ServiceRegistryEntry;
 import eu.arrowhead.common.exception.ArrowheadException;
+import eu.arrowhead.common.exception.ArrowheadExceptionMapper;
 import eu.arrowhead.common.exception.AuthException;
+import eu.arrowhead.common.exception.BadMethodExceptionMapper;
+import eu.arrowhead.common.exception.BadURIExceptionMapper;
 import eu.arrowhead.common.exception.ExceptionType;
+import eu.arrowhead.common.exception.GenericExceptionMapper;
+import eu.arrowhead.common.exception.JsonMappingExceptionMapper;
+import eu.arrowhead.common.exception.JsonParseExceptionMapper;
+import eu.arrowhead.common.filter.EmptyPayloadFilter;
+import eu.arrowhead.common.filter.InboundDebugFilter;
+import eu.arrowhead.common.filter.MetricsFilter;
+import eu.arrowhead.common.filter.OutboundDebugFilter;
+import eu.arrowhead.common.filter.ParsedPayloadInterceptor;
+import eu.arrowhead.common.filter.PayloadSizeFilter;
+import eu.arrowhead.common.filter.SecurityFilter;
+import eu.arrowhead.common.filter.TracingFilter;
+import eu.arrowhead.common.filter.WireFormatFilter;
+import eu.arrowhead.common.json.JacksonBinaryProviderAtRest;
+import eu.arrowhead.common.json.JacksonJsonProviderAtRest;
 import eu.arrowhead.common.misc.CoreSystem;
 import eu.arrowhead.common.misc.CoreSystemService;
+import eu.arrowhead.common.misc.HttpServerFactory;
+import eu.arrowhead.common.misc.Lifecycle;
 import eu.arrowhead.common.misc.SecurityUtils;
+import eu.arrowhead.common.misc.StartupTimer;
 import eu.arrowhead.common.misc.TypeSafeProperties;
+import eu.arrowhead.common.tracing.Tracer;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -29,10 +53,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceConfigurationError;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.core.Response.Status;
@@ -42,7 +70,6 @@ import org.apache.log4j.PropertyConfigurator;
 import org.glassfish.grizzly.http.server.HttpServer;
 import org.glassfish.grizzly.ssl.SSLContextConfigurator;
 import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
-import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 
 public abstract class ArrowheadMain {
@@ -50,15 +77,26 @@ public abstract class ArrowheadMain {
   public static final List<String> dbFields = Arrays.asList("db_user", "db_password", "db_address");
   public static final List<String> certFields = Arrays.asList("keystore", "keystorepass", "keypass", "truststore", "truststorepass");
   public static final Map<String, String> secureServerMetadata = Collections.singletonMap("security", "certificate");
+  //The providers and resources of the common module, registered explicitly in every core system (instead of scanning the eu.arrowhead.common package)
+  public static final Set<Class<?>> commonClasses = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+      HttpClientApi.class, MetricsApi.class, ServerApi.class, ArrowheadExceptionMapper.class, BadMethodExceptionMapper.class,
+      BadURIExceptionMapper.class, GenericExceptionMapper.class, JsonMappingExceptionMapper.class, JsonParseExceptionMapper.class,
+      EmptyPayloadFilter.class, InboundDebugFilter.class, MetricsFilter.class, OutboundDebugFilter.class, ParsedPayloadInterceptor.class,
+      PayloadSizeFilter.class, SecurityFilter.class, TracingFilter.class, WireFormatFilter.class, JacksonBinaryProviderAtRest.class,
+      JacksonJsonProviderAtRest.class)));
 
   protected String srBaseUri;
   protected final TypeSafeProperties props = Utility.getProp();
+  //Fast start mode: the database is initialized in parallel with the server start, without schema update, and the services are registered in the
+  //background
+  protected final boolean fastStart = props.getBooleanProperty("fast_start", false);
 
   private boolean daemon = false;
   private CoreSystem coreSystem;
   private HttpServer server;
   private String baseUri;
   private String base64PublicKey;
+  private StartupTimer timer;
 
   private static final Logger log = Logger.getLogger(ArrowheadMain.class.getName());
 
@@ -66,10 +104,24 @@ public abstract class ArrowheadMain {
     PropertyConfigurator.configure(props);
   }
 
-  protected void init(CoreSystem coreSystem, String[] args, Set<Class<?>> classes, String[] packages) {
+  /**
+   * Starts the core system.
+   *
+   * @param classes the resources and providers of the core system, the common ones are added to them
+   */
+  protected void init(CoreSystem coreSystem, String[] args, Set<Class<?>> classes) {
     System.out.println("Working directory: " + System.getProperty("user.dir"));
     this.coreSystem = coreSystem;
-    DatabaseManager.init();
+    timer = new StartupTimer(coreSystem.name());
+    //Requests arriving before the database is ready wait for the initialization of the DatabaseManager class
+    CompletableFuture<Void> database = CompletableFuture.runAsync(() -> {
+      long begin = timer.begin();
+      DatabaseManager.init();
+      timer.end("database", begin);
+    });
+    if (!fastStart) {
+      awaitDatabase(database);
+    }
 
     boolean isSecure = false;
     for (String arg : args) {
@@ -93,15 +145,23 @@ public abstract class ArrowheadMain {
                         : props.getIntProperty("insecure_port", coreSystem.getInsecurePort());
     baseUri = Utility.getUri(address, port, null, isSecure, true);
 
+    Set<Class<?>> allClasses = new HashSet<>(commonClasses);
+    allClasses.addAll(classes);
+    long begin = timer.begin();
     if (isSecure) {
       List<String> allMandatoryProperties = new ArrayList<>(coreSystem.getAlwaysMandatoryFields());
       allMandatoryProperties.addAll(coreSystem.getSecureMandatoryFields());
       Utility.checkProperties(props.stringPropertyNames(), allMandatoryProperties);
-      startSecureServer(classes, packages);
+      startSecureServer(allClasses);
     } else {
       Utility.checkProperties(props.stringPropertyNames(), coreSystem.getAlwaysMandatoryFields());
-      startServer(classes, packages);
+      startServer(allClasses);
     }
+    timer.end("server", begin);
+    awaitDatabase(database);
+    Lifecycle.systemStarted();
+    Lifecycle.setReady(UriBuilder.fromUri(baseUri).build().getPort(), true);
+    timer.report("ready");
 
     if (!coreSystem.equals(CoreSystem.SERVICE_REGISTRY_DNS) && !coreSystem.equals(CoreSystem.SERVICE_REGISTRY_SQL)) {
       String srAddress = props.getProperty("sr_address", "0.0.0.0");
@@ -109,10 +169,68 @@ public abstract class ArrowheadMain {
                             : props.getIntProperty("sr_insecure_port", CoreSystem.SERVICE_REGISTRY_SQL.getInsecurePort());
       srBaseUri = Utility.getUri(srAddress, srPort, "serviceregistry", isSecure, true);
       Utility.setServiceRegistryUri(srBaseUri);
-      useSRService(true);
+      if (fastStart) {
+        registerInBackground();
+      } else {
+        begin = timer.begin();
+        useSRService(true);
+        timer.end("registration", begin);
+        timer.report("registered");
+      }
+    }
+  }
+
+  private void awaitDatabase(CompletableFuture<Void> database) {
+    try {
+      database.join();
+    } catch (CompletionException e) {
+      if (server != null) {
+        server.shutdownNow();
+      }
+      //ServiceConfigurationError from the DatabaseManager class initialization
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
     }
   }
 
+  //Retries with exponential backoff (from sr_registration_retry_interval milliseconds, up to 1 minute), e.g. while the Service Registry restarts
+  private void registerInBackground() {
+    int maxRetries = props.getIntProperty("sr_registration_retries", 10);
+    long retryInterval = props.getIntProperty("sr_registration_retry_interval", 1000);
+    Thread registration = new Thread(() -> {
+      long begin = timer.begin();
+      for (int attempt = 0; ; attempt++) {
+        try {
+          useSRService(true);
+          timer.end("registration", begin);
+          timer.report("registered");
+          return;
+        } catch (RuntimeException e) {
+          if (attempt >= maxRetries) {
+            log.error(coreSystem + " service registration failed after " + (attempt + 1) + " attempts", e);
+            System.out.println(coreSystem + " service registration failed: " + e.getMessage());
+            return;
+          }
+          long delay = Math.min(retryInterval << Math.min(attempt, 16), TimeUnit.MINUTES.toMillis(1));
+          log.warn(coreSystem + " service registration failed, retrying in " + delay + " ms: " + e.getMessage());
+          try {
+            Thread.sleep(delay);
+          } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    }, coreSystem.name().toLowerCase() + "-registration");
+    registration.setDaemon(true);
+    registration.start();
+  }
+
   protected void listenForInput() {
     if (daemon) {
       System.out.println("In daemon mode, process will terminate for TERM signal...");
@@ -133,18 +251,18 @@ public abstract class ArrowheadMain {
         e.printStackTrace();
       }
       shutdown();
+      System.exit(0);
     }
   }
 
-  private void startServer(Set<Class<?>> classes, String[] packages) {
+  private void startServer(Set<Class<?>> classes) {
     final ResourceConfig config = new ResourceConfig();
     config.registerClasses(classes);
-    config.packages(packages);
+    config.property(Tracer.SYSTEM_PROPERTY, coreSystem.name());
 
     URI uri = UriBuilder.fromUri(baseUri).build();
     try {
-      server = GrizzlyHttpServerFactory.createHttpServer(uri, config, false);
-      server.getServerConfiguration().setAllowPayloadForUndefinedHttpMethods(true);
+      server = HttpServerFactory.createServer(uri, config, null, props);
       server.start();
       log.info("Started server at: " + baseUri);
       System.out.println("Started insecure server at: " + baseUri);
@@ -154,10 +272,10 @@ public abstract class ArrowheadMain {
     }
   }
 
-  protected void startSecureServer(Set<Class<?>> classes, String[] packages) {
+  protected void startSecureServer(Set<Class<?>> classes) {
     final ResourceConfig config = new ResourceConfig();
     config.registerClasses(classes);
-    config.packages(packages);
+    config.property(Tracer.SYSTEM_PROPERTY, coreSystem.name());
 
     String keystorePath = props.getProperty("keystore");
     String keystorePass = props.getProperty("keystorepass");
@@ -195,9 +313,7 @@ public abstract class ArrowheadMain {
 
     URI uri = UriBuilder.fromUri(baseUri).build();
     try {
-      server = GrizzlyHttpServerFactory
-          .createHttpServer(uri, config, true, new SSLEngineConfigurator(sslCon).setClientMode(false).setNeedClientAuth(true), false);
-      server.getServerConfiguration().setAllowPayloadForUndefinedHttpMethods(true);
+      server = HttpServerFactory.createServer(uri, config, new SSLEngineConfigurator(sslCon).setClientMode(false).setNeedClientAuth(true), props);
       server.start();
       log.info("Started server at: " + baseUri);
       System.out.println("Started secure server at: " + baseUri);
@@ -207,15 +323,38 @@ public abstract class ArrowheadMain {
     }
   }
 
+  /*
+    Also runs in a shutdown hook (daemon mode), where System.exit would block forever. The server drains before it stops: it reports not ready
+    first, then the services are deregistered, and after shutdown_drain_delay milliseconds (for the clients to stop sending new requests) the requests
+    in progress and the asynchronous work are waited for, until shutdown_timeout milliseconds from the beginning of the shutdown. The database
+    connection pool is closed last.
+   */
   private void shutdown() {
-    useSRService(false);
-    DatabaseManager.closeSessionFactory();
+    long deadline = System.currentTimeMillis() + props.getIntProperty("shutdown_timeout", 30000);
+    Lifecycle.setReady(UriBuilder.fromUri(baseUri).build().getPort(), false);
+    if (srBaseUri != null) {
+      try {
+        useSRService(false);
+      } catch (RuntimeException e) {
+        //The Service Registry can be stopped already (e.g. when all core systems run in the same JVM)
+        log.warn("Service deregistration failed: " + e.getMessage());
+      }
+    }
     if (server != null) {
+      try {
+        Thread.sleep(Math.min(props.getIntProperty("shutdown_drain_delay", 1000), Math.max(deadline - System.currentTimeMillis(), 0)));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
       log.info("Stopping server at: " + baseUri);
-      server.shutdownNow();
+      Lifecycle.stopServer(server, deadline);
+    }
+    Lifecycle.awaitBackgroundWork(deadline);
+    if (Lifecycle.systemStopped()) {
+      DatabaseManager.closeSessionFactory();
+      Tracer.flush();
     }
     System.out.println(coreSystem + " Server stopped");
-    System.exit(0);
   }
 
   private void useSRService(boolean registering) {
@@ -0,0 +1,205 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common;
+
+import eu.arrowhead.common.misc.TypeSafeProperties;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
+
+/**
+ * Cache of the core service URIs queried from the Service Registry (used by Utility.getServiceInfo).
+ * <ul>
+ * <li>Entries expire after <tt>core_service_cache_ttl</tt> seconds, and every cached service is queried again in the background in every
+ * <tt>core_service_refresh_interval</tt> seconds, so lookups normally never wait for the Service Registry.</li>
+ * <li>If the Service Registry can not be reached (or returns no provider), the last known URIs are used.</li>
+ * <li>Every registered provider of a service is cached: when the requests sent to the selected provider failed without response, the next provider
+ * without failures is returned, even if the Service Registry is down. LoadBalancer distributes the requests between the cached providers.</li>
+ * </ul>
+ */
+public final class CoreServiceResolver {
+
+  private static final Map<String, CachedService> cache = new ConcurrentHashMap<>();
+  //Notified after a background refresh changed the cached URIs (e.g. to reload the URIs stored by the core systems)
+  private static final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+  private static final TypeSafeProperties props = Utility.getLoadedProp();
+  private static final long ttlMillis = TimeUnit.SECONDS.toMillis(props.getIntProperty("core_service_cache_ttl", 300));
+  private static final int refreshInterval = props.getIntProperty("core_service_refresh_interval", 60);
+  private static final Logger log = Logger.getLogger(CoreServiceResolver.class.getName());
+  private static ScheduledExecutorService refresher;
+
+  private CoreServiceResolver() throws AssertionError {
+    throw new AssertionError("Arrowhead Common:CoreServiceResolver is a non-instantiable class");
+  }
+
+  private static final class CachedService {
+
+    private final List<String[]> providers;
+    private final long fetchedAt = System.currentTimeMillis();
+
+    private CachedService(List<String[]> providers) {
+      this.providers = providers;
+    }
+
+    private boolean isExpired() {
+      return System.currentTimeMillis() - fetchedAt >= ttlMillis;
+    }
+
+    private boolean hasSameProviders(CachedService other) {
+      return other != null && Arrays.deepEquals(providers.toArray(), other.providers.toArray());
+    }
+  }
+
+  /**
+   * Returns the service info of the selected provider of a core service: the first provider without failed requests, in the order of the Service
+   * Registry response. For load balancing between the providers, use the <tt>Utility.sendRequest</tt> methods addressing a CoreSystemService.
+   *
+   * @throws ServiceConfigurationError if the service is not cached and the Service Registry does not know any provider of it
+   */
+  public static String[] resolve(String serviceId) {
+    List<String[]> providers = getProviders(serviceId);
+    for (String[] provider : providers) {
+      if (!Utility.hasFailures(provider[0])) {
+        return provider;
+      }
+    }
+    return providers.get(0);
+  }
+
+  /**
+   * Returns the service info of every provider of a core service, in the order of the Service Registry response. The Service Registry is only
+   * queried if the service is not cached yet, or its entry expired.
+   *
+   * @throws ServiceConfigurationError if the service is not cached and the Service Registry does not know any provider of it
+   */
+  static List<String[]> getProviders(String serviceId) {
+    CachedService cached = cache.get(serviceId);
+    if (cached == null || cached.isExpired()) {
+      try {
+        cached = query(serviceId, Utility.queryServiceInfo(serviceId));
+      } catch (RuntimeException e) {
+        if (cached == null) {
+          throw e;
+        }
+        log.warn("Service Registry query failed for " + serviceId + ", the expired cached URIs are used: " + e.getMessage());
+      }
+    }
+    if (cached == null) {
+      log.fatal("getServiceInfo: SR query came back empty for: " + serviceId);
+      throw new ServiceConfigurationError(serviceId + " (service) not found in the Service Registry!");
+    }
+    return cached.providers;
+  }
+
+  /**
+   * Queries the not cached (or expired) services from the Service Registry in parallel, so the following <tt>resolve</tt> calls are served from
+   * the cache. Failed queries are only logged here, <tt>resolve</tt> reports them.
+   */
+  public static void prefetch(Collection<String> serviceIds) {
+    List<String> missing = new ArrayList<>();
+    for (String serviceId : serviceIds) {
+      CachedService cached = cache.get(serviceId);
+      if (cached == null || cached.isExpired()) {
+        missing.add(serviceId);
+      }
+    }
+    queryAll(missing);
+  }
+
+  /**
+   * Queries every cached service from the Service Registry again (e.g. after a core service became unavailable), and notifies the listeners if
+   * any of the URIs changed. If the Service Registry can not be reached, the cached URIs are kept.
+   */
+  public static void refresh() {
+    if (queryAll(new ArrayList<>(cache.keySet()))) {
+      for (Runnable listener : listeners) {
+        listener.run();
+      }
+    }
+  }
+
+  public static void addListener(Runnable listener) {
+    listeners.add(listener);
+  }
+
+  //Returns true if the providers of any of the services changed
+  private static boolean queryAll(List<String> serviceIds) {
+    Map<String, CompletionStage<List<String[]>>> queries = new HashMap<>();
+    for (String serviceId : serviceIds) {
+      try {
+        queries.put(serviceId, Utility.queryServiceInfo(serviceId));
+      } catch (RuntimeException e) {
+        CompletableFuture<List<String[]>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(e);
+        queries.put(serviceId, failed);
+      }
+    }
+
+    boolean changed = false;
+    for (Map.Entry<String, CompletionStage<List<String[]>>> query : queries.entrySet()) {
+      CachedService previous = cache.get(query.getKey());
+      try {
+        CachedService cached = query(query.getKey(), query.getValue());
+        changed |= cached != null && !cached.hasSameProviders(previous);
+      } catch (RuntimeException e) {
+        log.warn("Service Registry query failed for " + query.getKey() + ": " + e.getMessage());
+      }
+    }
+    return changed;
+  }
+
+  //Waits for the Service Registry query of the service and caches the result, an empty result keeps the previous entry (null if there was none)
+  private static CachedService query(String serviceId, CompletionStage<List<String[]>> query) {
+    List<String[]> providers = Utility.joinRequest(query);
+    if (providers.isEmpty()) {
+      CachedService previous = cache.get(serviceId);
+      if (previous != null) {
+        log.warn("Service Registry query came back empty for " + serviceId + ", the cached URIs are kept.");
+      }
+      return previous;
+    }
+    CachedService cached = new CachedService(providers);
+    cache.put(serviceId, cached);
+    startRefresher();
+    return cached;
+  }
+
+  private static synchronized void startRefresher() {
+    if (refresher != null || refreshInterval <= 0) {
+      return;
+    }
+    refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "core-service-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    refresher.scheduleWithFixedDelay(() -> {
+      try {
+        refresh();
+      } catch (RuntimeException e) {
+        //An exception would cancel the periodic refresh
+        log.error("Core service URI refresh failed", e);
+      }
+    }, refreshInterval, refreshInterval, TimeUnit.SECONDS);
+  }
+
+}
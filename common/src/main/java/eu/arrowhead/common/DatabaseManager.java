@@ -9,39 +9,119 @@
 
 package eu.arrowhead.common;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.arrowhead.common.database.ArrowheadCloud;
+import eu.arrowhead.common.database.ArrowheadService;
+import eu.arrowhead.common.database.ArrowheadSystem;
+import eu.arrowhead.common.database.OwnCloud;
+import eu.arrowhead.common.exception.ArrowheadException;
 import eu.arrowhead.common.exception.DuplicateEntryException;
+import eu.arrowhead.common.json.JacksonJsonProviderAtRest;
+import eu.arrowhead.common.metrics.Metrics;
+import eu.arrowhead.common.metrics.MetricsWriter;
+import eu.arrowhead.common.misc.BatchResult;
+import eu.arrowhead.common.misc.EntityCache;
+import eu.arrowhead.common.misc.Page;
+import eu.arrowhead.common.misc.ScrollableIterator;
 import eu.arrowhead.common.misc.TypeSafeProperties;
+import eu.arrowhead.common.tracing.Span;
+import eu.arrowhead.common.tracing.Tracer;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.ServiceConfigurationError;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.ws.rs.core.Response.Status;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.CacheConfiguration;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.hibernate.Criteria;
 import org.hibernate.Query;
+import org.hibernate.ScrollMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
+import org.hibernate.boot.CacheRegionDefinition;
+import org.hibernate.boot.CacheRegionDefinition.CacheRegionType;
+import org.hibernate.boot.cfgxml.spi.LoadedConfig;
+import org.hibernate.boot.cfgxml.spi.MappingReference;
+import org.hibernate.cache.spi.UpdateTimestampsCache;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Disjunction;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.ProjectionList;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.stat.Statistics;
+import org.hibernate.transform.Transformers;
 
 public class DatabaseManager {
 
   private static DatabaseManager instance;
   private static SessionFactory sessionFactory;
+  //Optional read replica, used by the read operations (see the executeRead method)
+  private static SessionFactory readSessionFactory;
   private static TypeSafeProperties prop = Utility.getProp();
   private static String dbAddress;
   private static String dbUser;
   private static String dbPassword;
+  private static String dbReadAddress;
+  //db_profile=embedded: in-process H2 database instead of the MySQL server (see EmbeddedDatabase)
+  private static final boolean embedded = EmbeddedDatabase.PROFILE.equalsIgnoreCase(prop.getProperty("db_profile", "mysql").trim());
+  //hbm2ddl.auto=update and the index migration on startup, skipped in fast start mode unless asked (the in-memory embedded database is always updated)
+  private static final boolean schemaUpdate = embedded || prop.getBooleanProperty("db_schema_update", !prop.getBooleanProperty("fast_start", false));
+  private static EntityCache entityCache;
+  private static final int batchSize = prop.getIntProperty("db_batch_size", 50);
+  private static final int fetchSize = prop.getIntProperty("db_fetch_size", 500);
+  private static final boolean secondLevelCacheEnabled = prop.getBooleanProperty("db_second_level_cache_enabled", false);
+  //Fully qualified names of the entities put into the Hibernate second-level cache (only the ones mapped in the hibernate.cfg.xml of the module)
+  private static final Set<String> secondLevelCachedEntities = new HashSet<>();
+  private static final ObjectMapper mapper = JacksonJsonProviderAtRest.getMapper();
   private static final Logger log = Logger.getLogger(DatabaseManager.class.getName());
+  private static final int IN_QUERY_CHUNK_SIZE = 1000;
+  //The session and transaction of the inTransaction call running on the current thread
+  private static final ThreadLocal<UnitOfWork> unitOfWork = new ThreadLocal<>();
+  //Reads go to the primary database for this long (in milliseconds) after a write, to hide the replication lag of the read replica
+  private static final long readStickyWindow = prop.getIntProperty("db_read_sticky_window", 2000);
+  private static final ThreadLocal<Long> lastWriteOnThread = new ThreadLocal<>();
+  private static volatile long lastWrite;
+
+  //Entities resolved by their natural key on almost every request, and the restriction map keys which identify them (see the get method)
+  private static final Map<Class<?>, Set<String>> naturalKeys = new HashMap<>();
 
   static {
+    Metrics.addCollector("database", DatabaseManager::collectDatabaseStats);
+    naturalKeys.put(ArrowheadSystem.class, Collections.singleton("systemName"));
+    naturalKeys.put(ArrowheadService.class, Collections.singleton("serviceDefinition"));
+    naturalKeys.put(ArrowheadCloud.class, new HashSet<>(Arrays.asList("operator", "cloudName")));
+    //Single row table, which is always read without restrictions (see Utility.getOwnCloud)
+    naturalKeys.put(OwnCloud.class, Collections.emptySet());
+
+    if (prop.getBooleanProperty("db_cache_enabled", true)) {
+      entityCache = new EntityCache(prop.getIntProperty("db_cache_max_size", 1000), prop.getIntProperty("db_cache_ttl", 60) * 1000L);
+    }
+
     if (prop.containsKey("db_address") || prop.containsKey("log4j.appender.DB.URL")) {
       if (prop.containsKey("db_address")) {
-        dbAddress = prop.getProperty("db_address");
+        dbAddress = embedded ? prop.getProperty("db_embedded_address", EmbeddedDatabase.DEFAULT_ADDRESS) : prop.getProperty("db_address");
         dbUser = prop.getProperty("db_user");
         dbPassword = prop.getProperty("db_password");
       } else {
@@ -52,10 +132,21 @@ public class DatabaseManager {
 
       try {
         if (sessionFactory == null) {
-          Configuration configuration = new Configuration().configure("hibernate.cfg.xml").setProperty("hibernate.connection.url", dbAddress)
-                                                           .setProperty("hibernate.connection.username", dbUser)
-                                                           .setProperty("hibernate.connection.password", dbPassword);
-          sessionFactory = configuration.buildSessionFactory();
+          sessionFactory = buildSessionFactory();
+          if (prop.containsKey("db_address")) {
+            if (schemaUpdate) {
+              SchemaIndexes.migrate(sessionFactory, prop.getBooleanProperty("db_create_missing_indexes", true));
+            }
+            if (embedded) {
+              EmbeddedDatabase.seed(sessionFactory, prop);
+              log.info("Using the embedded database: " + dbAddress);
+            }
+          }
+        }
+        if (prop.containsKey("db_address") && !embedded && !prop.getProperty("db_read_address", "").trim().isEmpty()) {
+          dbReadAddress = prop.getProperty("db_read_address").trim();
+          readSessionFactory = createReadConfiguration().buildSessionFactory();
+          log.info("Read operations are routed to the read replica: " + dbReadAddress);
         }
       } catch (Exception e) {
         if (!prop.containsKey("db_address")) {
@@ -89,99 +180,243 @@ public class DatabaseManager {
     if (sessionFactory != null) {
       sessionFactory.close();
     }
+    if (readSessionFactory != null) {
+      readSessionFactory.close();
+      readSessionFactory = null;
+    }
     instance = null;
   }
 
   public <T> T get(Class<T> queryClass, int id) {
-    T object;
-    Transaction transaction = null;
+    return executeRead("get", queryClass, session -> session.get(queryClass, id));
+  }
+
+  private SessionFactory getSessionFactory() {
+    if (sessionFactory == null) {
+      sessionFactory = buildSessionFactory();
+    }
+    return sessionFactory;
+  }
+
+  private SessionFactory getReadSessionFactory() {
+    if (readSessionFactory == null && dbReadAddress != null) {
+      readSessionFactory = createReadConfiguration().buildSessionFactory();
+    }
+    return readSessionFactory;
+  }
+
+  private static SessionFactory buildSessionFactory() {
+    Configuration configuration = createConfiguration(dbAddress, dbUser, dbPassword);
+    if (!schemaUpdate) {
+      configuration.setProperty("hibernate.hbm2ddl.auto", "none").setProperty("hbm2ddl.auto", "none");
+    }
+    //The log4j database appender connection (no db_address) always uses its own config
+    if (embedded && prop.containsKey("db_address")) {
+      return EmbeddedDatabase.buildSessionFactory(configuration);
+    }
+    return configuration.buildSessionFactory();
+  }
+
+  /*
+    The read replica gets its own connection pool, in read-only mode, and its schema is never updated (that is replicated from the primary). With
+    the second-level cache enabled, both session factories share the cache regions, so writes through the primary update the cached state.
+   */
+  private static Configuration createReadConfiguration() {
+    Configuration configuration = createConfiguration(dbReadAddress, prop.getProperty("db_read_user", dbUser),
+                                                      prop.getProperty("db_read_password", dbPassword));
+    String poolName = configuration.getProperty("hikari.poolName");
+    return configuration.setProperty("hibernate.hbm2ddl.auto", "none").setProperty("hbm2ddl.auto", "none")
+                        .setProperty("hikari.poolName", (poolName == null ? "Arrowhead" : poolName) + "ReadReplica")
+                        .setProperty("hikari.readOnly", "true");
+  }
+
+  private static Configuration createConfiguration(String address, String user, String password) {
+    Configuration configuration = new Configuration().configure("hibernate.cfg.xml").setProperty("hibernate.connection.url", address)
+                                                     .setProperty("hibernate.connection.username", user)
+                                                     .setProperty("hibernate.connection.password", password)
+                                                     //JDBC batching for the updates of mergeAll and the deletes of deleteAll. The entities use
+                                                     //IDENTITY ids on MySQL, so Hibernate never batches their inserts.
+                                                     .setProperty("hibernate.jdbc.batch_size", String.valueOf(batchSize))
+                                                     .setProperty("hibernate.order_updates", "true");
+    if (secondLevelCacheEnabled) {
+      configureSecondLevelCache(configuration);
+    }
+    return configuration;
+  }
+
+  /*
+    Puts the entities listed in the config file into the Hibernate second-level cache, backed by an in-process Ehcache. The entities are cached in
+    read-write mode, so writes through any session update the cached state. Criteria queries on these entities are also cached in the query cache,
+    which Hibernate invalidates whenever the underlying table is written.
+   */
+  private static void configureSecondLevelCache(Configuration configuration) {
+    net.sf.ehcache.config.Configuration cacheConfig = new net.sf.ehcache.config.Configuration();
+    cacheConfig.setUpdateCheck(false);
+    cacheConfig.defaultCache(new CacheConfiguration().maxEntriesLocalHeap(prop.getIntProperty("db_second_level_cache_max_entries", 10000))
+                                                     .timeToLiveSeconds(prop.getIntProperty("db_second_level_cache_ttl", 300)));
+    //Losing a table timestamp would make stale query results look up to date, so this region must never expire
+    cacheConfig.addCache(new CacheConfiguration(UpdateTimestampsCache.REGION_NAME, 0).eternal(true));
+    CacheManager.create(cacheConfig);
+
+    configuration.setProperty("hibernate.cache.use_second_level_cache", "true").setProperty("hibernate.cache.use_query_cache", "true")
+                 .setProperty("hibernate.cache.region.factory_class", "org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory")
+                 .setProperty("hibernate.generate_statistics", "true");
 
+    LoadedConfig cfgXml = configuration.getStandardServiceRegistryBuilder().getAggregatedCfgXml();
+    Set<String> mappedClasses = new HashSet<>();
+    for (MappingReference mapping : cfgXml.getMappingReferences()) {
+      mappedClasses.add(mapping.getReference());
+    }
+    String entityPackage = ArrowheadSystem.class.getPackage().getName();
+    for (String entity : prop.getProperty("db_second_level_cache_entities", "").split(",")) {
+      String className = entityPackage + "." + entity.trim();
+      if (entity.trim().isEmpty() || !mappedClasses.contains(className)) {
+        continue;
+      }
+      cfgXml.addCacheRegionDefinition(new CacheRegionDefinition(CacheRegionType.ENTITY, className, "read-write", null, true));
+      if (className.equals(ArrowheadService.class.getName())) {
+        cfgXml.addCacheRegionDefinition(new CacheRegionDefinition(CacheRegionType.COLLECTION, className + ".interfaces", "read-write", null, true));
+      }
+      secondLevelCachedEntities.add(className);
+    }
+    log.info("Second-level cache enabled for: " + secondLevelCachedEntities);
+  }
+
+  /**
+   * Runs the given work in one session and one database transaction. Every DatabaseManager call made by the work (on the same thread) joins this
+   * transaction instead of opening its own session, so a resource method can do all its reads and writes on one connection, and they are committed
+   * (or rolled back, if the work throws an exception) together. Entities returned inside the unit of work are managed by the session: changes made
+   * to them are written to the database on commit. Nested calls join the outermost unit of work.
+   *
+   * @param work the reads and writes to execute, the session can also be used directly for queries the DatabaseManager does not offer
+   *
+   * @return the return value of the work
+   */
+  public <R> R inTransaction(Function<Session, R> work) {
+    if (unitOfWork.get() != null) {
+      return work.apply(unitOfWork.get().session);
+    }
+
+    R result;
+    long start = System.nanoTime();
+    //The operations of the unit of work are recorded as the children of its span
+    Span span = startOperationSpan("inTransaction", null);
+    Span previousSpan = Tracer.activate(span);
+    Transaction transaction = null;
     try (Session session = getSessionFactory().openSession()) {
+      UnitOfWork boundWork = new UnitOfWork(session);
+      unitOfWork.set(boundWork);
       transaction = session.beginTransaction();
-      object = session.get(queryClass, id);
+      result = work.apply(session);
       transaction.commit();
+      //The cache is only invalidated after the commit, so concurrent lookups can not cache the uncommitted state
+      for (Entry<Class<?>, Boolean> written : boundWork.writtenClasses.entrySet()) {
+        invalidateCache(written.getKey(), written.getValue());
+      }
+      if (!boundWork.writtenClasses.isEmpty()) {
+        recordWrite();
+      }
     } catch (Exception e) {
-      if (transaction != null) {
+      log.error("inTransaction throws exception: " + e.getMessage());
+      span.setError(e);
+      if (transaction != null && transaction.getStatus().canRollback()) {
         transaction.rollback();
       }
       throw e;
+    } finally {
+      unitOfWork.remove();
+      Tracer.activate(previousSpan);
+      recordOperation("inTransaction", null, start, span);
     }
 
-    return object;
-  }
-
-  private SessionFactory getSessionFactory() {
-    if (sessionFactory == null) {
-      Configuration configuration = new Configuration().configure("hibernate.cfg.xml").setProperty("hibernate.connection.url", dbAddress)
-                                                       .setProperty("hibernate.connection.username", dbUser)
-                                                       .setProperty("hibernate.connection.password", dbPassword);
-      sessionFactory = configuration.buildSessionFactory();
-    }
-    return sessionFactory;
+    return result;
   }
 
+  /**
+   * Returns the unique entity matching all the restrictions, or null. Lookups of ArrowheadSystems, ArrowheadServices and ArrowheadClouds by their
+   * natural key are served from a read-through cache (if it is enabled in the config file). The entities are deep copied into the cache and out of
+   * it on every hit, so callers are free to modify the returned object (e.g. before a merge) without changing the cached state. Inside a unit of
+   * work (see inTransaction) the cache is bypassed.
+   */
   @SuppressWarnings("unchecked")
   public <T> T get(Class<T> queryClass, Map<String, Object> restrictionMap) {
-    T object;
-    Transaction transaction = null;
+    boolean cacheable = restrictionMap != null && isCacheableLookup(queryClass, restrictionMap.keySet());
+    long cacheGeneration = 0;
+    if (cacheable) {
+      Object cached = entityCache.get(queryClass, restrictionMap);
+      if (cached != null) {
+        return copy(cached, mapper.constructType(queryClass));
+      }
+      cacheGeneration = entityCache.getGeneration();
+    }
 
-    try (Session session = getSessionFactory().openSession()) {
-      transaction = session.beginTransaction();
-      Criteria criteria = session.createCriteria(queryClass);
-      if (restrictionMap != null && !restrictionMap.isEmpty()) {
-        for (Entry<String, Object> entry : restrictionMap.entrySet()) {
-          criteria.add(Restrictions.eq(entry.getKey(), entry.getValue()));
+    T object;
+    try {
+      object = executeRead("get", queryClass, session -> {
+        Criteria criteria = createCriteria(session, queryClass);
+        if (restrictionMap != null && !restrictionMap.isEmpty()) {
+          for (Entry<String, Object> entry : restrictionMap.entrySet()) {
+            criteria.add(Restrictions.eq(entry.getKey(), entry.getValue()));
+          }
         }
-      }
-      object = (T) criteria.uniqueResult();
-      transaction.commit();
+        return (T) criteria.uniqueResult();
+      });
     } catch (Exception e) {
       e.printStackTrace();
       log.error("get throws exception: " + e.getMessage());
-      if (transaction != null) {
-        transaction.rollback();
-      }
       throw e;
     }
 
+    if (cacheable && object != null && isReplicaInSync()) {
+      entityCache.put(queryClass, restrictionMap, copy(object, mapper.constructType(queryClass)), cacheGeneration);
+    }
     return object;
   }
 
+  /**
+   * Returns all the entities matching all the restrictions. Unrestricted queries of the single row OwnCloud table are served from the read-through
+   * cache (if it is enabled in the config file), as copies of the cached entities.
+   */
   @SuppressWarnings("unchecked")
   public <T> List<T> getAll(Class<T> queryClass, Map<String, Object> restrictionMap) {
-    List<T> retrievedList;
-    Transaction transaction = null;
+    boolean cacheable = (restrictionMap == null || restrictionMap.isEmpty()) && isCacheableLookup(queryClass, Collections.emptySet());
+    JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, queryClass);
+    long cacheGeneration = 0;
+    if (cacheable) {
+      Object cached = entityCache.get(queryClass, Collections.emptyMap());
+      if (cached != null) {
+        return copy(cached, listType);
+      }
+      cacheGeneration = entityCache.getGeneration();
+    }
 
-    try (Session session = getSessionFactory().openSession()) {
-      transaction = session.beginTransaction();
-      Criteria criteria = session.createCriteria(queryClass);
-      if (restrictionMap != null && !restrictionMap.isEmpty()) {
-        for (Entry<String, Object> entry : restrictionMap.entrySet()) {
-          criteria.add(Restrictions.eq(entry.getKey(), entry.getValue()));
+    List<T> retrievedList;
+    try {
+      retrievedList = executeRead("getAll", queryClass, session -> {
+        Criteria criteria = createCriteria(session, queryClass);
+        if (restrictionMap != null && !restrictionMap.isEmpty()) {
+          for (Entry<String, Object> entry : restrictionMap.entrySet()) {
+            criteria.add(Restrictions.eq(entry.getKey(), entry.getValue()));
+          }
         }
-      }
-      retrievedList = (List<T>) criteria.list();
-      transaction.commit();
+        return (List<T>) criteria.list();
+      });
     } catch (Exception e) {
       e.printStackTrace();
       log.error("getAll throws exception: " + e.getMessage());
-      if (transaction != null) {
-        transaction.rollback();
-      }
       throw e;
     }
 
+    if (cacheable && isReplicaInSync()) {
+      entityCache.put(queryClass, Collections.emptyMap(), copy(retrievedList, listType), cacheGeneration);
+    }
     return retrievedList;
   }
 
   @SuppressWarnings("unchecked")
   public <T> List<T> getAllOfEither(Class<T> queryClass, Map<String, Object> restrictionMap) {
-    List<T> retrievedList;
-    Transaction transaction = null;
-
-    try (Session session = getSessionFactory().openSession()) {
-      transaction = session.beginTransaction();
-      Criteria criteria = session.createCriteria(queryClass);
+    return executeRead("getAllOfEither", queryClass, session -> {
+      Criteria criteria = createCriteria(session, queryClass);
       if (restrictionMap != null && !restrictionMap.isEmpty()) {
         Disjunction disjunction = Restrictions.disjunction();
         for (Entry<String, Object> entry : restrictionMap.entrySet()) {
@@ -189,39 +424,297 @@ public class DatabaseManager {
         }
         criteria.add(disjunction);
       }
-      retrievedList = (List<T>) criteria.list();
-      transaction.commit();
-    } catch (Exception e) {
-      if (transaction != null) {
-        transaction.rollback();
+      return (List<T>) criteria.list();
+    });
+  }
+
+  public <T> List<T> getAllByKeys(Class<T> queryClass, String keyProperty, Collection<?> keys) {
+    return getAllByKeys(queryClass, null, keyProperty, keys);
+  }
+
+  /**
+   * Returns all the entities matching the equality restrictions, where the <i>keyProperty</i> is one of the given keys, using IN queries instead of
+   * one query per key. The order of the returned list is unspecified. Natural key lookups without extra restrictions are served from the entity
+   * cache first, and only the missing keys are queried.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> getAllByKeys(Class<T> queryClass, Map<String, Object> restrictionMap, String keyProperty, Collection<?> keys) {
+    List<T> retrievedList = new ArrayList<>();
+    if (keys == null || keys.isEmpty()) {
+      return retrievedList;
+    }
+
+    Set<Object> missingKeys = new HashSet<>(keys);
+    boolean cacheable = (restrictionMap == null || restrictionMap.isEmpty()) && isCacheableLookup(queryClass, Collections.singleton(keyProperty));
+    long cacheGeneration = 0;
+    if (cacheable) {
+      Iterator<Object> it = missingKeys.iterator();
+      while (it.hasNext()) {
+        Object cached = entityCache.get(queryClass, Collections.singletonMap(keyProperty, it.next()));
+        if (cached != null) {
+          retrievedList.add(copy(cached, mapper.constructType(queryClass)));
+          it.remove();
+        }
+      }
+      if (missingKeys.isEmpty()) {
+        return retrievedList;
       }
+      cacheGeneration = entityCache.getGeneration();
+    }
+
+    List<T> queriedList;
+    try {
+      queriedList = executeRead("getAllByKeys", queryClass, session -> {
+        List<T> chunkResults = new ArrayList<>();
+        for (List<Object> chunk : toChunks(missingKeys)) {
+          Criteria criteria = createCriteria(session, queryClass);
+          if (restrictionMap != null && !restrictionMap.isEmpty()) {
+            for (Entry<String, Object> entry : restrictionMap.entrySet()) {
+              criteria.add(Restrictions.eq(entry.getKey(), entry.getValue()));
+            }
+          }
+          criteria.add(Restrictions.in(keyProperty, chunk));
+          criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+          chunkResults.addAll((List<T>) criteria.list());
+        }
+        return chunkResults;
+      });
+    } catch (Exception e) {
+      log.error("getAllByKeys throws exception: " + e.getMessage());
       throw e;
     }
 
+    if (cacheable && isReplicaInSync()) {
+      String naturalKeyGetter = "get" + Character.toUpperCase(keyProperty.charAt(0)) + keyProperty.substring(1);
+      for (T object : queriedList) {
+        try {
+          Object key = queryClass.getMethod(naturalKeyGetter).invoke(object);
+          entityCache.put(queryClass, Collections.singletonMap(keyProperty, key), copy(object, mapper.constructType(queryClass)),
+                           cacheGeneration);
+        } catch (ReflectiveOperationException e) {
+          log.warn("getAllByKeys could not cache " + queryClass.getSimpleName() + " entity: " + e.getMessage());
+        }
+      }
+    }
+    retrievedList.addAll(queriedList);
     return retrievedList;
   }
 
+  /**
+   * Returns the entities of either of the given key properties having one of the given values (e.g. the MessageStreams where the consumer or the
+   * provider is in the list of systems) with a single query. Counterpart of the getAllOfEither method for multiple keys.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> getAllOfEitherByKeys(Class<T> queryClass, Map<String, Collection<?>> keyMap) {
+    Disjunction disjunction = Restrictions.disjunction();
+    for (Entry<String, Collection<?>> entry : keyMap.entrySet()) {
+      if (entry.getValue() != null && !entry.getValue().isEmpty()) {
+        disjunction.add(Restrictions.in(entry.getKey(), entry.getValue()));
+      }
+    }
+    //An empty disjunction would match every row
+    if (!disjunction.conditions().iterator().hasNext()) {
+      return new ArrayList<>();
+    }
 
-  public <T> T save(T object) {
+    return executeRead("getAllOfEitherByKeys", queryClass, session -> {
+      Criteria criteria = createCriteria(session, queryClass);
+      criteria.add(disjunction);
+      criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+      return (List<T>) criteria.list();
+    });
+  }
+
+  /**
+   * Batched existence check, mainly for tables with composite unique keys (like the authorization tables). Returns the subset of the given keys, for
+   * which an entity exists with the given equality restrictions. Use the <i>association.id</i> form of the key property to check associated
+   * entities by their ids. For example the authorized providers of a consumer/service pair can be checked with the "provider.id" property and the
+   * list of provider ids.
+   */
+  @SuppressWarnings("unchecked")
+  public Set<Object> getExistingKeys(Class<?> queryClass, Map<String, Object> restrictionMap, String keyProperty, Collection<?> keys) {
+    if (keys == null || keys.isEmpty()) {
+      return new HashSet<>();
+    }
+
+    try {
+      return executeRead("getExistingKeys", queryClass, session -> {
+        Set<Object> existingKeys = new HashSet<>();
+        for (List<Object> chunk : toChunks(new HashSet<>(keys))) {
+          Criteria criteria = createCriteria(session, queryClass);
+          if (restrictionMap != null && !restrictionMap.isEmpty()) {
+            for (Entry<String, Object> entry : restrictionMap.entrySet()) {
+              criteria.add(Restrictions.eq(entry.getKey(), entry.getValue()));
+            }
+          }
+          criteria.add(Restrictions.in(keyProperty, chunk));
+          criteria.setProjection(Projections.distinct(Projections.property(keyProperty)));
+          existingKeys.addAll(criteria.list());
+        }
+        return existingKeys;
+      });
+    } catch (Exception e) {
+      log.error("getExistingKeys throws exception: " + e.getMessage());
+      throw e;
+    }
+  }
+
+  /**
+   * Streams the entities matching the given criteria from a database cursor, instead of loading the whole result set into memory. Outside of a unit
+   * of work the returned entities are detached from the session after every fetch size rows. The iterator must be closed after use:
+   * <pre>
+   *   try (ScrollableIterator&lt;EventFilter&gt; filters = dm.stream(EventFilter.class)) { ... }
+   * </pre>
+   */
+  public <T> ScrollableIterator<T> stream(Class<T> queryClass, Criterion... criteria) {
+    return scroll(queryClass, null, null, null, null, criteria);
+  }
+
+  /**
+   * Streams the entities matching all the restrictions, in ascending order of the given properties (if any). Restrictions on the properties of
+   * associated entities can be given with the <i>association.property</i> form (for example <i>consumer.systemName</i>). The iterator must be closed
+   * after use.
+   */
+  public <T> ScrollableIterator<T> stream(Class<T> queryClass, Map<String, Object> restrictionMap, String... orderProperties) {
+    return scroll(queryClass, restrictionMap, null, null, orderProperties);
+  }
+
+  /**
+   * Streams DTO projections of the entities matching the given criteria, selecting only the listed columns. The keys of the projection map are the
+   * property names of the result class, the values are the entity property paths to select them from (for example <i>address</i> to
+   * <i>provider.address</i>). The result class needs a public no-arg constructor and setters. If only one property is projected, its values are
+   * returned as they are, and the result class is the type of the property. The iterator must be closed after use. It holds a database connection
+   * and an open cursor until then, so slow work (like network calls) should happen after collecting the projections, not while iterating.
+   */
+  public <T> ScrollableIterator<T> stream(Class<?> queryClass, Class<T> resultClass, Map<String, String> projection, Criterion... criteria) {
+    return scroll(queryClass, null, resultClass, projection, null, criteria);
+  }
+
+  private <T> ScrollableIterator<T> scroll(Class<?> queryClass, Map<String, Object> restrictionMap, Class<T> resultClass,
+                                           Map<String, String> projection, String[] orderProperties, Criterion... criteria) {
+    UnitOfWork boundWork = unitOfWork.get();
+    Session session = boundWork != null ? boundWork.session : getSessionFactoryForRead().openSession();
     Transaction transaction = null;
 
-    try (Session session = getSessionFactory().openSession()) {
-      transaction = session.beginTransaction();
-      session.save(object);
-      transaction.commit();
-    } catch (ConstraintViolationException e) {
-      if (transaction != null) {
-        transaction.rollback();
+    try {
+      if (boundWork == null) {
+        transaction = session.beginTransaction();
+      }
+      Criteria query = session.createCriteria(queryClass);
+      Set<String> aliases = new HashSet<>();
+      addRestrictions(query, restrictionMap, aliases);
+      for (Criterion criterion : criteria) {
+        query.add(criterion);
       }
+      if (orderProperties != null) {
+        for (String orderProperty : orderProperties) {
+          query.addOrder(Order.asc(orderProperty));
+        }
+      }
+      if (projection != null && !projection.isEmpty()) {
+        ProjectionList projectionList = Projections.projectionList();
+        for (Entry<String, String> property : projection.entrySet()) {
+          addAlias(query, property.getValue(), aliases);
+          projectionList.add(Projections.property(property.getValue()), property.getKey());
+        }
+        query.setProjection(projectionList);
+        if (projection.size() > 1) {
+          query.setResultTransformer(Transformers.aliasToBean(resultClass));
+        }
+      }
+      query.setFetchSize(fetchSize);
+      query.setReadOnly(true);
+      return new ScrollableIterator<>(session, transaction, query.scroll(ScrollMode.FORWARD_ONLY), fetchSize, projection == null);
+    } catch (Exception e) {
+      log.error("stream throws exception: " + e.getMessage());
+      if (boundWork == null) {
+        if (transaction != null) {
+          transaction.rollback();
+        }
+        session.close();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Returns one page of the entities matching all the restrictions, ordered by the key property (which should be unique, like the id), starting
+   * after the given key. This keyset pagination stays fast on large tables, unlike offset based paging. Restrictions on associated entities can be
+   * given in the <i>association.property</i> form. The returned page also contains the total number of matching entities.
+   *
+   * @param after the key of the last entity of the previous page, or null for the first page
+   * @param limit maximum number of entities on the page
+   */
+  public <T> Page<T> getPage(Class<T> queryClass, Map<String, Object> restrictionMap, String keyProperty, Object after, int limit) {
+    return getPage(queryClass, restrictionMap, null, null, keyProperty, after, limit);
+  }
+
+  /**
+   * Returns one page of the entities matching all the restrictions, ordered by the (not unique) sort property first, and by the unique key property
+   * among the entities with the same sort value (a compound keyset on the two properties). The next key of the returned page is a
+   * <i>sortValue,key</i> string, which the caller has to parse back into the two after values of the next page.
+   *
+   * @param afterSortValue the sort property value of the last entity of the previous page, or null for the first page
+   * @param afterKey the key of the last entity of the previous page, or null for the first page
+   * @param limit maximum number of entities on the page
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Page<T> getPage(Class<T> queryClass, Map<String, Object> restrictionMap, String sortProperty, Object afterSortValue, String keyProperty,
+                             Object afterKey, int limit) {
+    try {
+      return executeRead("getPage", queryClass, session -> {
+        Criteria countQuery = session.createCriteria(queryClass);
+        addRestrictions(countQuery, restrictionMap, new HashSet<>());
+        countQuery.setProjection(Projections.rowCount());
+        long totalCount = (Long) countQuery.uniqueResult();
+
+        Criteria query = createCriteria(session, queryClass);
+        addRestrictions(query, restrictionMap, new HashSet<>());
+        if (sortProperty != null) {
+          if (afterSortValue != null && afterKey != null) {
+            query.add(Restrictions.or(Restrictions.gt(sortProperty, afterSortValue),
+                                      Restrictions.and(Restrictions.eq(sortProperty, afterSortValue), Restrictions.gt(keyProperty, afterKey))));
+          }
+          query.addOrder(Order.asc(sortProperty));
+        } else if (afterKey != null) {
+          query.add(Restrictions.gt(keyProperty, afterKey));
+        }
+        query.addOrder(Order.asc(keyProperty));
+        //Querying one more entity than the limit shows whether there is a next page
+        query.setMaxResults(limit + 1);
+        List<T> items = (List<T>) query.list();
+
+        Object nextKey = null;
+        if (items.size() > limit) {
+          items = new ArrayList<>(items.subList(0, limit));
+          nextKey = getPropertyValue(items.get(limit - 1), keyProperty);
+          if (sortProperty != null) {
+            nextKey = getPropertyValue(items.get(limit - 1), sortProperty) + "," + nextKey;
+          }
+        }
+        return new Page<>(items, totalCount, limit, nextKey);
+      });
+    } catch (Exception e) {
+      log.error("getPage throws exception: " + e.getMessage());
+      throw e;
+    }
+  }
+
+
+  public <T> T save(T object) {
+    try {
+      execute("save", object.getClass(), session -> {
+        session.save(object);
+        flushIfBound(session);
+        return object;
+      });
+      recordWrite();
+      invalidateCache(object, false);
+    } catch (ConstraintViolationException e) {
       log.error("DatabaseManager:save throws DuplicateEntryException");
       throw new DuplicateEntryException(
           "There is already an entry in the database with these parameters. Please check the unique fields of the " + object.getClass(),
           Status.BAD_REQUEST.getStatusCode(), e);
-    } catch (Exception e) {
-      if (transaction != null) {
-        transaction.rollback();
-      }
-      throw e;
     }
 
     return object;
@@ -229,60 +722,458 @@ public class DatabaseManager {
 
 
   public <T> T merge(T object) {
-    Transaction transaction = null;
-
-    try (Session session = getSessionFactory().openSession()) {
-      transaction = session.beginTransaction();
-      session.merge(object);
-      transaction.commit();
+    try {
+      execute("merge", object.getClass(), session -> {
+        session.merge(object);
+        flushIfBound(session);
+        return object;
+      });
+      recordWrite();
+      invalidateCache(object, true);
     } catch (ConstraintViolationException e) {
-      if (transaction != null) {
-        transaction.rollback();
-      }
       log.error("DatabaseManager:merge throws DuplicateEntryException");
       throw new DuplicateEntryException(
           "There is already an entry in the database with these parameters. Please check the unique fields of the " + object.getClass(),
           Status.BAD_REQUEST.getStatusCode(), e);
-    } catch (Exception e) {
-      if (transaction != null) {
-        transaction.rollback();
-      }
-      throw e;
     }
 
     return object;
   }
 
   public <T> void delete(T object) {
-    Transaction transaction = null;
-
-    try (Session session = getSessionFactory().openSession()) {
-      transaction = session.beginTransaction();
-      session.delete(object);
-      transaction.commit();
+    try {
+      execute("delete", object.getClass(), session -> {
+        session.delete(object);
+        flushIfBound(session);
+        return object;
+      });
+      recordWrite();
+      invalidateCache(object, false);
     } catch (ConstraintViolationException e) {
-      if (transaction != null) {
-        transaction.rollback();
-      }
       log.error("DatabaseManager:delete throws ConstraintViolationException");
       throw new DuplicateEntryException(
           "There is a reference to this object in another table, which prevents the delete operation. (" + object.getClass() + ")",
           Status.BAD_REQUEST.getStatusCode(), e);
-    } catch (Exception e) {
-      if (transaction != null) {
-        transaction.rollback();
+    }
+  }
+
+  /**
+   * Saves all the objects in one session and transaction. The entities get IDENTITY (auto increment) ids on MySQL, which Hibernate has to read back
+   * after every insert, so the inserts are NOT sent as a JDBC batch: this saves the per object transactions, but not the per row round trips. If some
+   * of the objects violate a database constraint (e.g. they are duplicates of existing rows), the rest of the objects are still saved, and the
+   * violating ones are reported in the returned BatchResult. Inside a unit of work (see inTransaction) a constraint violation fails the whole unit of
+   * work instead.
+   */
+  public <T> BatchResult<T> saveAll(Collection<T> objects) {
+    return executeBatch(objects, (session, object) -> {
+      session.save(object);
+      return object;
+    }, false);
+  }
+
+  /**
+   * Merges all the objects in one session and transaction, using JDBC batching. The succeeded list of the returned BatchResult contains the merged
+   * instances. Objects violating a database constraint are reported as failed, without aborting the rest of the batch.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> BatchResult<T> mergeAll(Collection<T> objects) {
+    return executeBatch(objects, (session, object) -> (T) session.merge(object), true);
+  }
+
+  /**
+   * Deletes all the objects in one session and transaction, using JDBC batching. Objects which can not be deleted because other tables reference them
+   * are reported as failed, without aborting the rest of the batch.
+   */
+  public <T> BatchResult<T> deleteAll(Collection<T> objects) {
+    return executeBatch(objects, (session, object) -> {
+      session.delete(object);
+      return object;
+    }, false);
+  }
+
+  /**
+   * Deletes the entities having one of the given keys (e.g. ids collected by a stream projection), loading them in IN query chunks first, so the
+   * deletes cascade the same way as with the delete method.
+   */
+  public <T> BatchResult<T> deleteAllByKeys(Class<T> queryClass, String keyProperty, Collection<?> keys) {
+    BatchResult<T> result = new BatchResult<>();
+    List<Object> keyList = new ArrayList<>(new HashSet<>(keys));
+    for (int i = 0; i < keyList.size(); i += IN_QUERY_CHUNK_SIZE) {
+      List<Object> chunk = keyList.subList(i, Math.min(i + IN_QUERY_CHUNK_SIZE, keyList.size()));
+      BatchResult<T> chunkResult = deleteAll(getAllByKeys(queryClass, keyProperty, chunk));
+      result.getSucceeded().addAll(chunkResult.getSucceeded());
+      result.getFailed().addAll(chunkResult.getFailed());
+    }
+    return result;
+  }
+
+  /*
+    Runs the whole batch in one transaction first. If it fails on a constraint violation, the transaction is rolled back, and the batch is retried in
+    chunks of the JDBC batch size, where only the failing chunks are processed element by element to find the violating elements. Inside a unit of
+    work the transaction can not be partially rolled back, so there the batch runs on the bound session and the exception is propagated.
+   */
+  private <T> BatchResult<T> executeBatch(Collection<T> objects, BiFunction<Session, T, T> operation, boolean merged) {
+    BatchResult<T> result = new BatchResult<>();
+    if (objects == null || objects.isEmpty()) {
+      return result;
+    }
+
+    List<T> objectList = new ArrayList<>(objects);
+    if (unitOfWork.get() != null) {
+      result.getSucceeded().addAll(executeInTransaction(objectList, operation));
+    } else {
+      try {
+        result.getSucceeded().addAll(executeInTransaction(objectList, operation));
+      } catch (ConstraintViolationException e) {
+        log.warn("Batch operation violates a database constraint, retrying in chunks of " + batchSize + " to isolate the failing elements.");
+        for (int i = 0; i < objectList.size(); i += batchSize) {
+          List<T> chunk = objectList.subList(i, Math.min(i + batchSize, objectList.size()));
+          try {
+            result.getSucceeded().addAll(executeInTransaction(chunk, operation));
+          } catch (ConstraintViolationException ex) {
+            for (T object : chunk) {
+              try {
+                result.getSucceeded().addAll(executeInTransaction(Collections.singletonList(object), operation));
+              } catch (ConstraintViolationException exc) {
+                log.error("Batch operation failed on " + object.getClass().getSimpleName() + ": " + exc.getMessage());
+                result.getFailed().add(object);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    recordWrite();
+    Set<Class<?>> writtenClasses = new HashSet<>();
+    for (T object : objectList) {
+      if (writtenClasses.add(object.getClass())) {
+        invalidateCache(object, merged);
       }
-      throw e;
     }
+    return result;
+  }
+
+  private <T> List<T> executeInTransaction(List<T> objects, BiFunction<Session, T, T> operation) {
+    boolean bound = unitOfWork.get() != null;
+    return execute("batch", objects.get(0).getClass(), session -> {
+      List<T> results = new ArrayList<>(objects.size());
+      for (int i = 0; i < objects.size(); i++) {
+        results.add(operation.apply(session, objects.get(i)));
+        //Sending the pending updates and deletes as a JDBC batch, and keeping the session memory flat (the entities of a unit of work stay managed)
+        if ((i + 1) % batchSize == 0) {
+          session.flush();
+          if (!bound) {
+            session.clear();
+          }
+        }
+      }
+      flushIfBound(session);
+      return results;
+    });
   }
 
   // NOTE this only works well on tables which dont have any connection to any other tables (HQL does not do cascading)
   @SuppressWarnings("unused")
   public void deleteAll(String tableName) {
-    Session session = getSessionFactory().openSession();
+    UnitOfWork boundWork = unitOfWork.get();
+    Session session = boundWork != null ? boundWork.session : getSessionFactory().openSession();
     String stringQuery = "DELETE FROM " + tableName;
     Query query = session.createQuery(stringQuery);
     query.executeUpdate();
+    recordWrite();
+    if (entityCache != null) {
+      entityCache.clear();
+    }
+  }
+
+  private static void addRestrictions(Criteria criteria, Map<String, Object> restrictionMap, Set<String> aliases) {
+    if (restrictionMap == null) {
+      return;
+    }
+    for (Entry<String, Object> entry : restrictionMap.entrySet()) {
+      addAlias(criteria, entry.getKey(), aliases);
+      criteria.add(Restrictions.eq(entry.getKey(), entry.getValue()));
+    }
+  }
+
+  //Property paths of associated entities need a join, using the association name as the alias (the foreign key is enough for the id)
+  private static void addAlias(Criteria criteria, String propertyPath, Set<String> aliases) {
+    int dot = propertyPath.indexOf('.');
+    if (dot > 0 && !propertyPath.endsWith(".id") && aliases.add(propertyPath.substring(0, dot))) {
+      criteria.createAlias(propertyPath.substring(0, dot), propertyPath.substring(0, dot));
+    }
+  }
+
+  //Reads a (possibly nested, dot separated) property of an entity through its getters
+  private static Object getPropertyValue(Object object, String propertyPath) {
+    Object value = object;
+    for (String property : propertyPath.split("\\.")) {
+      try {
+        value = value.getClass().getMethod("get" + Character.toUpperCase(property.charAt(0)) + property.substring(1)).invoke(value);
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalArgumentException("Can not read the " + propertyPath + " property of " + object.getClass().getSimpleName(), e);
+      }
+    }
+    return value;
+  }
+
+  //Queries of the second-level cached entities go through the query cache too
+  /*
+    Deep copy of a cached entity (or entity list) through its JSON form. ObjectMapper.convertValue can not be used for this: it returns the same
+    instance if the target type is not generic and the value is assignable to it.
+   */
+  private static <T> T copy(Object value, JavaType type) {
+    try {
+      return mapper.readValue(mapper.writeValueAsBytes(value), type);
+    } catch (IOException e) {
+      throw new ArrowheadException("Entity cache copy of " + type.getRawClass().getSimpleName() + " failed: " + e.getMessage(), e);
+    }
+  }
+
+  private Criteria createCriteria(Session session, Class<?> queryClass) {
+    Criteria criteria = session.createCriteria(queryClass);
+    if (secondLevelCachedEntities.contains(queryClass.getName())) {
+      criteria.setCacheable(true);
+    }
+    return criteria;
+  }
+
+  /*
+    Runs the work on the session of the current unit of work, or in a new session and transaction of its own, if there is no unit of work bound to
+    the calling thread.
+    The duration of the operation is recorded by entity class (see the arrowhead_db_operation_seconds metric).
+   */
+  private <R> R execute(String operation, Class<?> entity, Function<Session, R> work) {
+    return executeOperation(operation, entity, work, false);
+  }
+
+  //Same as execute, but outside of a unit of work the work runs on the read replica (if there is one and the calling thread did not write recently)
+  private <R> R executeRead(String operation, Class<?> entity, Function<Session, R> work) {
+    return executeOperation(operation, entity, work, true);
+  }
+
+  private <R> R executeOperation(String operation, Class<?> entity, Function<Session, R> work, boolean read) {
+    long start = System.nanoTime();
+    Span span = startOperationSpan(operation, entity);
+    try {
+      UnitOfWork boundWork = unitOfWork.get();
+      if (boundWork != null) {
+        return work.apply(boundWork.session);
+      }
+      return execute(read ? getSessionFactoryForRead() : getSessionFactory(), work);
+    } catch (RuntimeException e) {
+      span.setError(e);
+      throw e;
+    } finally {
+      recordOperation(operation, entity, start, span);
+    }
+  }
+
+  private static Span startOperationSpan(String operation, Class<?> entity) {
+    return Tracer.startSpan(entity == null ? operation : operation + " " + entity.getSimpleName(), Span.Kind.INTERNAL);
+  }
+
+  private static void recordOperation(String operation, Class<?> entity, long start, Span span) {
+    Metrics.timer("arrowhead_db_operation_seconds", "Duration of the DatabaseManager operations, including the session and transaction handling",
+                  "operation", operation, "entity", entity == null ? "none" : entity.getSimpleName()).recordSince(start);
+    span.end();
+  }
+
+  private <R> R execute(SessionFactory factory, Function<Session, R> work) {
+    try (Session session = factory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      try {
+        R result = work.apply(session);
+        transaction.commit();
+        return result;
+      } catch (RuntimeException e) {
+        //Rolling back before the session is closed, so the original exception is not masked by a closed connection error
+        if (transaction.getStatus().canRollback()) {
+          transaction.rollback();
+        }
+        throw e;
+      }
+    }
+  }
+
+  private SessionFactory getSessionFactoryForRead() {
+    SessionFactory replica = getReadSessionFactory();
+    if (replica == null) {
+      return getSessionFactory();
+    }
+    Long lastWriteOnThisThread = lastWriteOnThread.get();
+    if (lastWriteOnThisThread != null && System.currentTimeMillis() - lastWriteOnThisThread < readStickyWindow) {
+      return getSessionFactory();
+    }
+    return replica;
+  }
+
+  //Read your writes: the following reads of the thread go to the primary database for the configured time window
+  private static void recordWrite() {
+    if (dbReadAddress != null) {
+      long now = System.currentTimeMillis();
+      lastWriteOnThread.set(now);
+      lastWrite = now;
+    }
+  }
+
+  //A lagging read replica could return an entity which was modified recently by someone else, that must not be cached
+  private static boolean isReplicaInSync() {
+    return dbReadAddress == null || System.currentTimeMillis() - lastWrite >= readStickyWindow;
+  }
+
+  //Writes inside a unit of work are flushed right away, so constraint violations surface at the call site and not at the commit
+  private void flushIfBound(Session session) {
+    if (unitOfWork.get() != null) {
+      session.flush();
+    }
+  }
+
+  public long getCacheHitCount() {
+    return entityCache == null ? 0 : entityCache.getHitCount();
+  }
+
+  public long getCacheMissCount() {
+    return entityCache == null ? 0 : entityCache.getMissCount();
+  }
+
+  public int getCacheSize() {
+    return entityCache == null ? 0 : entityCache.size();
+  }
+
+  /**
+   * Empties the read-through cache and the Hibernate second-level and query caches. Needed after the database was modified by other means than the
+   * DatabaseManager (e.g. by hand).
+   */
+  public void clearCache() {
+    if (entityCache != null) {
+      entityCache.clear();
+    }
+    if (secondLevelCacheEnabled && sessionFactory != null) {
+      sessionFactory.getCache().evictAllRegions();
+    }
+  }
+
+  /**
+   * Returns the Hibernate statistics (second-level cache and query cache hit/miss counts, among others), or null if the second-level cache is not
+   * enabled in the config file.
+   */
+  public Statistics getSecondLevelCacheStatistics() {
+    return secondLevelCacheEnabled ? getSessionFactory().getStatistics() : null;
+  }
+
+  public double getSecondLevelCacheHitRatio() {
+    Statistics statistics = getSecondLevelCacheStatistics();
+    if (statistics == null) {
+      return 0;
+    }
+    long hits = statistics.getSecondLevelCacheHitCount() + statistics.getQueryCacheHitCount();
+    long total = hits + statistics.getSecondLevelCacheMissCount() + statistics.getQueryCacheMissCount();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  private static void collectDatabaseStats(MetricsWriter writer) {
+    if (entityCache != null) {
+      writer.counter("arrowhead_db_entity_cache_hits_total", "Lookups served from the entity cache", entityCache.getHitCount());
+      writer.counter("arrowhead_db_entity_cache_misses_total", "Lookups missing the entity cache", entityCache.getMissCount());
+      writer.gauge("arrowhead_db_entity_cache_size", "Entries in the entity cache", entityCache.size());
+    }
+    if (secondLevelCacheEnabled && sessionFactory != null) {
+      Statistics statistics = sessionFactory.getStatistics();
+      writer.counter("arrowhead_db_second_level_cache_hits_total", "Hits of the Hibernate caches", statistics.getSecondLevelCacheHitCount(), "cache",
+                     "entity");
+      writer.counter("arrowhead_db_second_level_cache_hits_total", "Hits of the Hibernate caches", statistics.getQueryCacheHitCount(), "cache",
+                     "query");
+      writer.counter("arrowhead_db_second_level_cache_misses_total", "Misses of the Hibernate caches", statistics.getSecondLevelCacheMissCount(),
+                     "cache", "entity");
+      writer.counter("arrowhead_db_second_level_cache_misses_total", "Misses of the Hibernate caches", statistics.getQueryCacheMissCount(), "cache",
+                     "query");
+    }
+
+    //The HikariCP pools are registered as MBeans (hikari.registerMbeans in hibernate.cfg.xml), named by the poolName of the configuration
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      for (ObjectName pool : server.queryNames(new ObjectName("com.zaxxer.hikari:type=Pool (*"), null)) {
+        String type = pool.getKeyProperty("type");
+        String name = type.substring("Pool (".length(), type.length() - 1);
+        writer.gauge("arrowhead_db_pool_connections_active", "Connections of the database pool in use",
+                     ((Number) server.getAttribute(pool, "ActiveConnections")).doubleValue(), "pool", name);
+        writer.gauge("arrowhead_db_pool_connections_idle", "Idle connections of the database pool",
+                     ((Number) server.getAttribute(pool, "IdleConnections")).doubleValue(), "pool", name);
+        writer.gauge("arrowhead_db_pool_connections_total", "Connections of the database pool",
+                     ((Number) server.getAttribute(pool, "TotalConnections")).doubleValue(), "pool", name);
+        writer.gauge("arrowhead_db_pool_threads_awaiting", "Threads waiting for a connection of the database pool",
+                     ((Number) server.getAttribute(pool, "ThreadsAwaitingConnection")).doubleValue(), "pool", name);
+      }
+    } catch (JMException e) {
+      log.warn("Database pool statistics are not available: " + e.getMessage());
+    }
+  }
+
+  //Splits large key sets, so the IN lists stay within reasonable statement sizes
+  private static List<List<Object>> toChunks(Collection<Object> keys) {
+    List<List<Object>> chunks = new ArrayList<>();
+    List<Object> chunk = new ArrayList<>(Math.min(keys.size(), IN_QUERY_CHUNK_SIZE));
+    for (Object key : keys) {
+      chunk.add(key);
+      if (chunk.size() == IN_QUERY_CHUNK_SIZE) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>(IN_QUERY_CHUNK_SIZE);
+      }
+    }
+    if (!chunk.isEmpty()) {
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+
+  private boolean isCacheableLookup(Class<?> queryClass, Set<String> restrictionKeys) {
+    //Inside a unit of work the callers need entities managed by the bound session, and the uncommitted state must not leak into the cache
+    if (entityCache == null || unitOfWork.get() != null) {
+      return false;
+    }
+    Set<String> naturalKey = naturalKeys.get(queryClass);
+    return naturalKey != null && naturalKey.equals(restrictionKeys);
+  }
+
+  /*
+    Write operations drop every cached entity of the written type (the natural key itself can be changed by a merge). Merging other entities can
+    cascade into cached ones (the associations use CascadeType.MERGE), so in that case the whole cache is cleared. Inside a unit of work the
+    invalidation is deferred until the commit.
+   */
+  private void invalidateCache(Object object, boolean merged) {
+    UnitOfWork boundWork = unitOfWork.get();
+    if (boundWork != null) {
+      boundWork.writtenClasses.merge(object.getClass(), merged, Boolean::logicalOr);
+      return;
+    }
+    invalidateCache(object.getClass(), merged);
+  }
+
+  private void invalidateCache(Class<?> type, boolean merged) {
+    if (entityCache == null) {
+      return;
+    }
+    if (naturalKeys.containsKey(type)) {
+      entityCache.invalidate(type);
+      //The cached OwnCloud embeds its ArrowheadCloud
+      if (type.equals(ArrowheadCloud.class)) {
+        entityCache.invalidate(OwnCloud.class);
+      }
+    } else if (merged) {
+      entityCache.clear();
+    }
+  }
+
+  private static final class UnitOfWork {
+
+    private final Session session;
+    private final Map<Class<?>, Boolean> writtenClasses = new HashMap<>();
+
+    UnitOfWork(Session session) {
+      this.session = session;
+    }
   }
 
 }
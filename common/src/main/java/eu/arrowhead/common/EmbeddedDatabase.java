@@ -0,0 +1,168 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common;
+
+import eu.arrowhead.common.database.ArrowheadCloud;
+import eu.arrowhead.common.database.Broker;
+import eu.arrowhead.common.database.NeighborCloud;
+import eu.arrowhead.common.database.OwnCloud;
+import eu.arrowhead.common.misc.TypeSafeProperties;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.cfgxml.spi.LoadedConfig;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+
+/**
+ * Embedded (in-process H2) database profile of the core systems, selected with <tt>db_profile=embedded</tt> in the config file. The schema is created
+ * from the entity mappings at startup, and the own cloud, neighbor clouds and brokers given in the config file are inserted into their empty tables.
+ * The in-memory database only lives as long as the JVM, so it is meant for single node deployments (see the standalone module) and local
+ * benchmarks.
+ */
+final class EmbeddedDatabase {
+
+  static final String PROFILE = "embedded";
+  static final String DEFAULT_ADDRESS = "jdbc:h2:mem:arrowhead;DB_CLOSE_DELAY=-1";
+
+  private static final String MYSQL_DATA_SOURCE_PREFIX = "hikari.dataSource.";
+  private static final Logger log = Logger.getLogger(EmbeddedDatabase.class.getName());
+
+  private EmbeddedDatabase() throws AssertionError {
+    throw new AssertionError("Arrowhead Common:EmbeddedDatabase is a non-instantiable class");
+  }
+
+  /*
+    The hibernate.cfg.xml files are written for MySQL: the data source properties of the MySQL driver are removed (H2 rejects the unknown connection
+    settings), and the schema is always created/updated from the mappings. The internal registry builder of the Configuration already holds the
+    MySQL settings, so the session factory is built on a new registry builder, from the cleaned settings.
+   */
+  static SessionFactory buildSessionFactory(Configuration configuration) {
+    LoadedConfig cfgXml = configuration.getStandardServiceRegistryBuilder().getAggregatedCfgXml();
+    removeMysqlProperties(cfgXml.getConfigurationValues());
+    Map<Object, Object> settings = new HashMap<>(configuration.getProperties());
+    removeMysqlProperties(settings);
+
+    settings.put("hibernate.connection.driver_class", "org.h2.Driver");
+    settings.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+    settings.put("hibernate.hbm2ddl.auto", "update");
+    settings.put("hbm2ddl.auto", "update");
+    //The shutdown hook of H2 would close the database while the core systems are still draining, it is closed with the connection pool instead
+    Object url = settings.get("hibernate.connection.url");
+    if (url != null && !url.toString().toUpperCase().contains("DB_CLOSE_ON_EXIT")) {
+      settings.put("hibernate.connection.url", url + ";DB_CLOSE_ON_EXIT=FALSE");
+    }
+
+    StandardServiceRegistry registry = new StandardServiceRegistryBuilder().configure(cfgXml).applySettings(settings).build();
+    return configuration.buildSessionFactory(registry);
+  }
+
+  private static void removeMysqlProperties(Map<?, ?> settings) {
+    settings.keySet().removeIf(key -> key.toString().startsWith(MYSQL_DATA_SOURCE_PREFIX));
+  }
+
+  //Inserts the configured rows into the empty own_cloud, neighbor_cloud and broker tables (if they are mapped in this module)
+  static void seed(SessionFactory sessionFactory, TypeSafeProperties prop) {
+    try (Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+
+      String ownCloud = prop.getProperty("db_embedded_own_cloud", "").trim();
+      if (!ownCloud.isEmpty() && isEmpty(sessionFactory, session, OwnCloud.class)) {
+        session.save(new OwnCloud(getOrSaveCloud(session, parseCloud(ownCloud))));
+        log.info("Own cloud inserted into the embedded database: " + ownCloud);
+      }
+      if (isEmpty(sessionFactory, session, NeighborCloud.class)) {
+        for (String neighborCloud : split(prop.getProperty("db_embedded_neighbor_clouds", ""))) {
+          session.save(new NeighborCloud(getOrSaveCloud(session, parseCloud(neighborCloud))));
+          log.info("Neighbor cloud inserted into the embedded database: " + neighborCloud);
+        }
+      }
+      if (isEmpty(sessionFactory, session, Broker.class)) {
+        for (String broker : split(prop.getProperty("db_embedded_brokers", ""))) {
+          session.save(parseBroker(broker));
+          log.info("Broker inserted into the embedded database: " + broker);
+        }
+      }
+
+      transaction.commit();
+    }
+  }
+
+  //Unmapped entities count as not empty, so nothing is inserted for them
+  private static boolean isEmpty(SessionFactory sessionFactory, Session session, Class<?> entityClass) {
+    if (sessionFactory.getClassMetadata(entityClass) == null) {
+      return false;
+    }
+    Long rowCount = (Long) session.createCriteria(entityClass).setProjection(Projections.rowCount()).uniqueResult();
+    return rowCount == null || rowCount == 0;
+  }
+
+  private static ArrowheadCloud getOrSaveCloud(Session session, ArrowheadCloud cloud) {
+    ArrowheadCloud savedCloud = (ArrowheadCloud) session.createCriteria(ArrowheadCloud.class).add(Restrictions.eq("operator", cloud.getOperator()))
+                                                        .add(Restrictions.eq("cloudName", cloud.getCloudName())).uniqueResult();
+    if (savedCloud == null) {
+      session.save(cloud);
+      return cloud;
+    }
+    return savedCloud;
+  }
+
+  private static List<String> split(String entries) {
+    List<String> result = new ArrayList<>();
+    for (String entry : entries.split(";")) {
+      if (!entry.trim().isEmpty()) {
+        result.add(entry.trim());
+      }
+    }
+    return result;
+  }
+
+  //operator,cloud_name,address,port,gatekeeper_service_uri,secure[,authentication_info]
+  private static ArrowheadCloud parseCloud(String cloud) {
+    String[] fields = getFields(cloud, 6);
+    return new ArrowheadCloud(fields[0], fields[1], fields[2], parsePort(cloud, fields[3]), fields[4], fields.length > 6 ? fields[6] : null,
+                              Boolean.valueOf(fields[5]));
+  }
+
+  //broker_name,address,port,secure[,authentication_info]
+  private static Broker parseBroker(String broker) {
+    String[] fields = getFields(broker, 4);
+    return new Broker(fields[0], fields[1], parsePort(broker, fields[2]), Boolean.valueOf(fields[3]), fields.length > 4 ? fields[4] : null);
+  }
+
+  private static String[] getFields(String entry, int mandatoryFieldCount) {
+    String[] fields = entry.split(",");
+    if (fields.length < mandatoryFieldCount) {
+      throw new ServiceConfigurationError("Embedded database seed entry has less than " + mandatoryFieldCount + " fields: " + entry);
+    }
+    for (int i = 0; i < fields.length; i++) {
+      fields[i] = fields[i].trim();
+    }
+    return fields;
+  }
+
+  private static Integer parsePort(String entry, String port) {
+    try {
+      return Integer.valueOf(port);
+    } catch (NumberFormatException e) {
+      throw new ServiceConfigurationError("Embedded database seed entry has an invalid port number: " + entry, e);
+    }
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common;
+
+import eu.arrowhead.common.exception.UnavailableServerException;
+import eu.arrowhead.common.misc.CoreSystemService;
+import eu.arrowhead.common.misc.TypeSafeProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import org.apache.log4j.Logger;
+
+/**
+ * Client side load balancing between the providers of a core service, which are cached by CoreServiceResolver (used by the
+ * <tt>Utility.sendRequest</tt> methods addressing a CoreSystemService). The policy is set by <tt>core_service_load_balancing</tt>:
+ * <ul>
+ * <li><tt>round_robin</tt>: the providers are used in turn.</li>
+ * <li><tt>least_outstanding</tt>: the provider with the fewest requests in progress (from this system) is used.</li>
+ * <li><tt>ewma</tt>: the provider with the lowest exponentially weighted moving average response time is used, weighted by its requests in
+ * progress.</li>
+ * </ul>
+ * A provider failing without response is ejected for <tt>core_service_ejection_time</tt> milliseconds, and only used again if every other provider
+ * is ejected too.
+ */
+final class LoadBalancer {
+
+  enum Policy {ROUND_ROBIN, LEAST_OUTSTANDING, EWMA}
+
+  //Weight of the latest response time in the moving average
+  private static final double EWMA_ALPHA = 0.3;
+
+  private static final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+  private static final Map<String, AtomicInteger> nextIndexes = new ConcurrentHashMap<>();
+  private static final TypeSafeProperties props = Utility.getLoadedProp();
+  private static final Policy policy = getPolicy();
+  private static final long ejectionTime = props.getIntProperty("core_service_ejection_time", 30000);
+  private static final Logger log = Logger.getLogger(LoadBalancer.class.getName());
+
+  private LoadBalancer() throws AssertionError {
+    throw new AssertionError("Arrowhead Common:LoadBalancer is a non-instantiable class");
+  }
+
+  private static final class Endpoint {
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile double averageMillis;
+    private volatile long ejectedUntil;
+
+    private synchronized void recordLatency(double millis) {
+      averageMillis = averageMillis == 0 ? millis : EWMA_ALPHA * millis + (1 - EWMA_ALPHA) * averageMillis;
+    }
+
+    private boolean isEjected(long now) {
+      return ejectedUntil > now;
+    }
+
+    //Providers without measurements yet are tried first, but not flooded while their first requests are in progress
+    private double getLoad() {
+      return averageMillis == 0 ? outstanding.get() : averageMillis * (outstanding.get() + 1);
+    }
+  }
+
+  private static Policy getPolicy() {
+    String name = props.getProperty("core_service_load_balancing", "round_robin");
+    try {
+      return Policy.valueOf(name.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new ServiceConfigurationError("Unknown core_service_load_balancing policy: " + name + " (round_robin, least_outstanding or ewma)");
+    }
+  }
+
+  static <T> Response sendRequest(CoreSystemService service, String path, String method, T payload) {
+    String[] provider = select(service.getServiceDef());
+    Endpoint endpoint = endpoints.computeIfAbsent(provider[0], uri -> new Endpoint());
+    endpoint.outstanding.incrementAndGet();
+    long start = System.nanoTime();
+    try {
+      Response response = Utility.sendRequest(getUri(provider, path), method, payload);
+      complete(endpoint, provider[0], start, null);
+      return response;
+    } catch (RuntimeException e) {
+      complete(endpoint, provider[0], start, e);
+      throw e;
+    }
+  }
+
+  static <T> CompletionStage<Response> sendRequestAsync(CoreSystemService service, String path, String method, T payload) {
+    String[] provider = select(service.getServiceDef());
+    Endpoint endpoint = endpoints.computeIfAbsent(provider[0], uri -> new Endpoint());
+    endpoint.outstanding.incrementAndGet();
+    long start = System.nanoTime();
+    CompletionStage<Response> request;
+    try {
+      request = Utility.sendRequestAsync(getUri(provider, path), method, payload);
+    } catch (RuntimeException e) {
+      complete(endpoint, provider[0], start, e);
+      throw e;
+    }
+    return request.whenComplete((response, throwable) -> complete(endpoint, provider[0], start, throwable));
+  }
+
+  private static String getUri(String[] provider, String path) {
+    return path == null ? provider[0] : UriBuilder.fromUri(provider[0]).path(path).build().toString();
+  }
+
+  private static void complete(Endpoint endpoint, String uri, long start, Throwable throwable) {
+    endpoint.outstanding.decrementAndGet();
+    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+    //Error responses count as successful round trips, only the requests failing without response (origin is set for the received errors) eject
+    if (cause instanceof UnavailableServerException && ((UnavailableServerException) cause).getOrigin() == null) {
+      endpoint.ejectedUntil = System.currentTimeMillis() + ejectionTime;
+      log.warn(uri + " is ejected from the load balancing for " + ejectionTime + " ms");
+    } else {
+      endpoint.recordLatency((System.nanoTime() - start) / 1e6);
+    }
+  }
+
+  private static String[] select(String serviceId) {
+    List<String[]> providers = CoreServiceResolver.getProviders(serviceId);
+    long now = System.currentTimeMillis();
+    List<String[]> available = new ArrayList<>();
+    for (String[] provider : providers) {
+      Endpoint endpoint = endpoints.get(provider[0]);
+      if (endpoint == null || !endpoint.isEjected(now)) {
+        available.add(provider);
+      }
+    }
+    if (available.isEmpty()) {
+      available = providers;
+    }
+
+    //Round robin start index, so equally loaded providers are also used in turn by the other policies
+    int first = Math.floorMod(nextIndexes.computeIfAbsent(serviceId, id -> new AtomicInteger()).getAndIncrement(), available.size());
+    if (policy == Policy.ROUND_ROBIN) {
+      return available.get(first);
+    }
+    String[] selected = null;
+    double selectedLoad = Double.MAX_VALUE;
+    for (int i = 0; i < available.size(); i++) {
+      String[] provider = available.get((first + i) % available.size());
+      Endpoint endpoint = endpoints.get(provider[0]);
+      double load = endpoint == null ? 0 : policy == Policy.LEAST_OUTSTANDING ? endpoint.outstanding.get() : endpoint.getLoad();
+      if (load < selectedLoad) {
+        selected = provider;
+        selectedLoad = load;
+      }
+    }
+    return selected;
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.metadata.ClassMetadata;
+
+/**
+ * Schema migration step for the secondary indexes declared on the entities (<tt>@Table(indexes = ...)</tt>). Existing databases created before an
+ * index was declared do not get it reliably from <tt>hbm2ddl.auto=update</tt>, so on startup every declared index is checked against the database
+ * metadata. A declared index counts as present, if an existing index starts with the same columns. Missing indexes are created, or only logged, if
+ * the migration is turned off in the config file.
+ */
+final class SchemaIndexes {
+
+  private static final Logger log = Logger.getLogger(SchemaIndexes.class.getName());
+
+  private SchemaIndexes() throws AssertionError {
+    throw new AssertionError("Arrowhead Common:SchemaIndexes is a non-instantiable class");
+  }
+
+  static void migrate(SessionFactory sessionFactory, boolean createMissing) {
+    try (Session session = sessionFactory.openSession()) {
+      session.doWork(connection -> {
+        for (ClassMetadata classMetadata : sessionFactory.getAllClassMetadata().values()) {
+          Class<?> mappedClass = classMetadata.getMappedClass();
+          Table table = mappedClass.getAnnotation(Table.class);
+          if (table == null || table.indexes().length == 0) {
+            continue;
+          }
+          Map<String, List<String>> existingIndexes = getExistingIndexes(connection, table.name());
+          for (Index index : table.indexes()) {
+            List<String> columns = new ArrayList<>();
+            for (String column : index.columnList().split(",")) {
+              columns.add(column.trim().toLowerCase(Locale.ROOT));
+            }
+            if (isCovered(columns, existingIndexes)) {
+              continue;
+            }
+            if (createMissing) {
+              createIndex(connection, table.name(), index);
+            } else {
+              log.warn("Missing database index " + index.name() + " on " + table.name() + "(" + index.columnList() + ")");
+            }
+          }
+        }
+      });
+    } catch (Exception e) {
+      log.error("Database index check failed: " + e.getMessage());
+    }
+  }
+
+  //Index name -> ordered list of lowercase column names
+  private static Map<String, List<String>> getExistingIndexes(Connection connection, String tableName) throws SQLException {
+    DatabaseMetaData metaData = connection.getMetaData();
+    String table = metaData.storesUpperCaseIdentifiers() ? tableName.toUpperCase(Locale.ROOT) : tableName;
+    Map<String, List<String>> indexes = new HashMap<>();
+    try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, table, false, false)) {
+      while (rs.next()) {
+        String indexName = rs.getString("INDEX_NAME");
+        String column = rs.getString("COLUMN_NAME");
+        if (indexName == null || column == null) {
+          continue;
+        }
+        List<String> columns = indexes.computeIfAbsent(indexName, k -> new ArrayList<>());
+        int position = rs.getInt("ORDINAL_POSITION");
+        while (columns.size() < position) {
+          columns.add(null);
+        }
+        columns.set(position - 1, column.toLowerCase(Locale.ROOT));
+      }
+    }
+    return indexes;
+  }
+
+  private static boolean isCovered(List<String> columns, Map<String, List<String>> existingIndexes) {
+    for (List<String> existingColumns : existingIndexes.values()) {
+      if (existingColumns.size() >= columns.size() && existingColumns.subList(0, columns.size()).equals(columns)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void createIndex(Connection connection, String tableName, Index index) {
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate("CREATE INDEX " + index.name() + " ON " + tableName + " (" + index.columnList() + ")");
+      log.info("Created missing database index " + index.name() + " on " + tableName + "(" + index.columnList() + ")");
+    } catch (SQLException e) {
+      log.error("Could not create database index " + index.name() + " on " + tableName + ": " + e.getMessage());
+    }
+  }
+
+}
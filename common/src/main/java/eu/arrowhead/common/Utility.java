@@ -9,7 +9,6 @@
 
 package eu.arrowhead.common;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.arrowhead.common.database.ArrowheadCloud;
 import eu.arrowhead.common.database.ArrowheadService;
 import eu.arrowhead.common.database.ArrowheadSystem;
@@ -24,85 +23,242 @@ import eu.arrowhead.common.exception.DnsException;
 import eu.arrowhead.common.exception.DuplicateEntryException;
 import eu.arrowhead.common.exception.ErrorMessage;
 import eu.arrowhead.common.exception.UnavailableServerException;
+import eu.arrowhead.common.json.JacksonBinaryProviderAtRest;
 import eu.arrowhead.common.json.JacksonJsonProviderAtRest;
+import eu.arrowhead.common.json.JsonCodec;
+import eu.arrowhead.common.json.WireFormat;
+import eu.arrowhead.common.messages.ConnectionPoolStats;
 import eu.arrowhead.common.messages.ServiceQueryForm;
 import eu.arrowhead.common.messages.ServiceQueryResult;
+import eu.arrowhead.common.metrics.Metrics;
+import eu.arrowhead.common.metrics.MetricsWriter;
+import eu.arrowhead.common.misc.CircuitBreaker;
 import eu.arrowhead.common.misc.CoreSystemService;
 import eu.arrowhead.common.misc.TypeSafeProperties;
-import java.io.BufferedReader;
+import eu.arrowhead.common.tracing.Span;
+import eu.arrowhead.common.tracing.Tracer;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.ServiceConfigurationError;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.ws.rs.NotAllowedException;
 import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.AsyncInvoker;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation.Builder;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.Response.Status.Family;
 import javax.ws.rs.core.UriBuilder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.log4j.Logger;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.RequestEntityProcessing;
 
 public final class Utility {
 
-  private static Client client = createClient(null);
+  private static final String DEFAULT_CONF = "default.conf";
+  private static final String DEFAULT_CONF_DIR = "config" + File.separator + "default.conf";
+  private static final String APP_CONF = "app.conf";
+  private static final String APP_CONF_DIR = "config" + File.separator + "app.conf";
+
+  //Connection pools of the HTTP clients by name (statistics are returned by getConnectionPoolStats), initialized before the first client
+  private static final Map<String, PoolingHttpClientConnectionManager> connectionPools = new ConcurrentHashMap<>();
+  private static final TypeSafeProperties clientProps = getClientProps();
+  //Wire format of the requests sent to the core systems of the cloud (selected by the first path segment of the URI), JSON is sent to the others
+  private static final WireFormat coreWireFormat = getCoreWireFormat();
+  private static final Set<String> coreWireFormatTargets = getCoreWireFormatTargets();
+  //Hosts which rejected the binary wire format (415 Unsupported Media Type), they get JSON from then on
+  private static final Set<String> jsonOnlyHosts = ConcurrentHashMap.newKeySet();
+
+  private static Client client = createClient(null, "http");
   private static Client sslClient;
+  //Clients of the SSLContexts given to sendRequest (e.g. the Gatekeeper contexts), created once and reused for every request
+  private static final Map<SSLContext, Client> contextClients = new ConcurrentHashMap<>();
+  //Circuit breakers of the requests by target host (host:port), created on the first request sent to the host
+  private static final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+  //PUT requests are only retried to the side effect free query endpoints (e.g. the gateway connection PUT requests open sessions and ports)
+  private static final List<String> retryPutPaths = getRetryPutPaths();
+  private static final Set<String> METHODS = new HashSet<>(Arrays.asList("GET", "POST", "PUT", "DELETE"));
+  //Delays the retries of the asynchronous requests, so no executor thread is blocked during the backoff
+  private static final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "http-client-retry");
+    thread.setDaemon(true);
+    return thread;
+  });
   private static SSLContext sslContext;
   private static String SR_QUERY_URI;
 
-  private static final ObjectMapper mapper = JacksonJsonProviderAtRest.getMapper();
   private static final Logger log = Logger.getLogger(Utility.class.getName());
   private static final HostnameVerifier allHostsValid = (hostname, session) -> {
     // Decide whether to allow the connection...
     return true;
   };
 
-  private static final String DEFAULT_CONF = "default.conf";
-  private static final String DEFAULT_CONF_DIR = "config" + File.separator + "default.conf";
-  private static final String APP_CONF = "app.conf";
-  private static final String APP_CONF_DIR = "config" + File.separator + "app.conf";
+  static {
+    Metrics.addCollector("http client", Utility::collectClientStats);
+  }
 
   private Utility() throws AssertionError {
     throw new AssertionError("Arrowhead Common:Utility is a non-instantiable class");
   }
 
-  private static Client createClient(SSLContext context) {
-    ClientConfig configuration = new ClientConfig();
-    configuration.property(ClientProperties.CONNECT_TIMEOUT, 30000);
-    configuration.property(ClientProperties.READ_TIMEOUT, 30000);
-
-    Client client;
+  /*
+    The clients use the Apache HttpClient connector with a connection pool, so connections are kept alive and reused between requests (per target
+    host limits apply). Every client keeps its own SSLContext, so the JSSE session cache of the context resumes the TLS sessions of new connections.
+   */
+  private static Client createClient(SSLContext context, String poolName) {
+    RegistryBuilder<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+        .register("http", PlainConnectionSocketFactory.getSocketFactory());
     if (context != null) {
-      client = ClientBuilder.newBuilder().sslContext(context).withConfig(configuration).hostnameVerifier(allHostsValid).build();
-    } else {
-      client = ClientBuilder.newClient(configuration);
+      socketFactories.register("https", new SSLConnectionSocketFactory(context, allHostsValid));
     }
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactories.build());
+    connectionManager.setMaxTotal(clientProps.getIntProperty("http_client_max_connections", 200));
+    connectionManager.setDefaultMaxPerRoute(clientProps.getIntProperty("http_client_max_connections_per_route", 20));
+    //Kept alive connections closed by the other side in the meantime are detected before reuse
+    connectionManager.setValidateAfterInactivity(clientProps.getIntProperty("http_client_validate_after_inactivity", 2000));
+    connectionPools.put(poolName, connectionManager);
+
+    ClientConfig configuration = new ClientConfig();
+    configuration.connectorProvider(new ApacheConnectorProvider());
+    configuration.property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
+    //Waiting for a free pooled connection fails the request after the connect timeout, instead of blocking forever
+    int connectTimeout = clientProps.getIntProperty("http_connect_timeout", 10000);
+    //Content compression: the Apache client sends "Accept-Encoding: gzip,deflate" and decodes the encoded responses transparently
+    RequestConfig requestConfig = RequestConfig.custom().setConnectionRequestTimeout(connectTimeout)
+                                               .setContentCompressionEnabled(clientProps.getBooleanProperty("http_client_compression", true))
+                                               .build();
+    configuration.property(ApacheClientProperties.REQUEST_CONFIG, requestConfig);
+    configuration.property(ClientProperties.REQUEST_ENTITY_PROCESSING, RequestEntityProcessing.BUFFERED);
+    configuration.property(ClientProperties.CONNECT_TIMEOUT, connectTimeout);
+    configuration.property(ClientProperties.READ_TIMEOUT, clientProps.getIntProperty("http_read_timeout", 30000));
+    //Bounded executor of the sendRequestAsync calls
+    configuration.property(ClientProperties.ASYNC_THREADPOOL_SIZE, clientProps.getIntProperty("http_client_async_threads", 20));
+
+    Client client = ClientBuilder.newClient(configuration);
     client.register(JacksonJsonProviderAtRest.class);
+    client.register(JacksonBinaryProviderAtRest.class);
     return client;
   }
 
+  //Utility is also used outside of the core systems, where the config file is optional
+  private static TypeSafeProperties getClientProps() {
+    try {
+      return getProp();
+    } catch (ServiceConfigurationError e) {
+      return new TypeSafeProperties();
+    }
+  }
+
+  private static WireFormat getCoreWireFormat() {
+    String name = clientProps.getProperty("core_wire_format", "json");
+    try {
+      return WireFormat.valueOf(name.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new ServiceConfigurationError("Unknown core_wire_format: " + name + " (json, cbor or smile)");
+    }
+  }
+
+  private static List<String> getRetryPutPaths() {
+    List<String> paths = new ArrayList<>();
+    for (String path : clientProps.getProperty("http_retry_put_paths", "serviceregistry/query,authorization/intracloud,authorization/intercloud")
+                                  .split(",")) {
+      if (!path.trim().isEmpty()) {
+        paths.add(path.trim());
+      }
+    }
+    return paths;
+  }
+
+  private static Set<String> getCoreWireFormatTargets() {
+    Set<String> targets = new HashSet<>();
+    for (String target : clientProps.getProperty("core_wire_format_targets", "serviceregistry,authorization,eventhandler,gatekeeper,orchestrator")
+                                    .split(",")) {
+      targets.add(target.trim());
+    }
+    return targets;
+  }
+
+  //The config file read once at class initialization, empty if there is no config file
+  static TypeSafeProperties getLoadedProp() {
+    return clientProps;
+  }
+
+  public static List<ConnectionPoolStats> getConnectionPoolStats() {
+    List<ConnectionPoolStats> statsList = new ArrayList<>();
+    for (Entry<String, PoolingHttpClientConnectionManager> pool : new TreeMap<>(connectionPools).entrySet()) {
+      PoolStats total = pool.getValue().getTotalStats();
+      ConnectionPoolStats stats = new ConnectionPoolStats(pool.getKey(), total.getLeased(), total.getPending(), total.getAvailable(), total.getMax());
+      for (HttpRoute route : pool.getValue().getRoutes()) {
+        PoolStats routeStats = pool.getValue().getStats(route);
+        stats.getRoutes().add(new ConnectionPoolStats(route.getTargetHost().toURI(), routeStats.getLeased(), routeStats.getPending(),
+                                                      routeStats.getAvailable(), routeStats.getMax()));
+      }
+      statsList.add(stats);
+    }
+    return statsList;
+  }
+
+  public static List<CircuitBreaker> getCircuitBreakers() {
+    List<CircuitBreaker> breakers = new ArrayList<>(circuitBreakers.values());
+    breakers.sort(Comparator.comparing(CircuitBreaker::getHost));
+    return breakers;
+  }
+
   public static void setSSLContext(SSLContext context) {
+    if (sslClient != null) {
+      sslClient.close();
+    }
     sslContext = context;
-    sslClient = createClient(sslContext);
+    sslClient = createClient(sslContext, "https");
   }
 
   public static void setServiceRegistryUri(String uri) {
@@ -112,9 +268,212 @@ public final class Utility {
     SR_QUERY_URI = UriBuilder.fromUri(uri).path("query").build().toString();
   }
 
+  /**
+   * Sends a request to the given URI and returns the response, or throws the ArrowheadException received from the other side.
+   * <p>
+   * Requests failing before the connection is established (connection refused, connect timeout) are retried with a jittered exponential backoff
+   * (<tt>http_max_retries</tt>, <tt>http_retry_backoff</tt>), if they are GET requests or PUT queries listed in <tt>http_retry_put_paths</tt>. Read
+   * timeouts are never retried, since the other side may have processed the request already. Every target host has a circuit breaker: after
+   * <tt>http_circuit_breaker_failures</tt> consecutive failures the requests to the host fail fast with UnavailableServerException, until
+   * <tt>http_circuit_breaker_open_time</tt> elapses. Error responses do not count as failures, since the host is reachable.
+   */
   public static <T> Response sendRequest(String uri, String method, T payload, SSLContext givenContext) {
     log.info("Sending " + method + " request to: " + uri);
+    checkMethod(method, "sendRequest");
+    WireFormat format = getWireFormat(uri);
+    Builder request = createRequest(uri, givenContext, format, null);
+    CircuitBreaker breaker = getCircuitBreaker(uri);
+    Span span = startClientSpan(request, uri, method, breaker);
+    long start = System.nanoTime();
+    Response response;
+    try {
+      response = invokeWithRetries(uri, method, payload, format, request, breaker, span);
+    } catch (UnavailableServerException e) {
+      recordRequest(breaker, method, "unavailable", start, span);
+      throw e;
+    }
+    recordRequest(breaker, method, Integer.toString(response.getStatus()), start, span);
+
+    // If the response status code does not start with 2 the request was not successful
+    if (!(response.getStatusInfo().getFamily() == Family.SUCCESSFUL)) {
+      handleException(response, uri);
+    }
 
+    return response;
+  }
+
+  private static <T> Response invokeWithRetries(String uri, String method, T payload, WireFormat format, Builder request, CircuitBreaker breaker,
+                                                Span span) {
+    WireFormat usedFormat = format;
+    for (int attempt = 0; ; attempt++) {
+      checkCircuitBreaker(breaker, uri);
+      try {
+        Response response = invoke(request, method, payload, usedFormat);
+        if (isWireFormatRejected(response, usedFormat)) {
+          response.close();
+          usedFormat = fallBackToJson(request, breaker.getHost(), usedFormat);
+          response = invoke(request, method, payload, usedFormat);
+        }
+        //Reading the whole body releases the pooled connection right away, even if the caller never reads or closes the response
+        response.bufferEntity();
+        breaker.recordSuccess();
+        return response;
+      } catch (ProcessingException e) {
+        breaker.recordFailure();
+        if (!canRetry(method, uri, attempt, e)) {
+          log.error("UnavailableServerException occurred at " + uri, e);
+          throw new UnavailableServerException("Could not get any response from: " + uri, Status.SERVICE_UNAVAILABLE.getStatusCode(), e);
+        }
+        log.warn("Retrying " + method + " request to " + uri + " after: " + e.getMessage());
+        span.addEvent("Retrying after: " + e.getMessage());
+        try {
+          Thread.sleep(getRetryDelay(attempt));
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw new UnavailableServerException("Could not get any response from: " + uri, Status.SERVICE_UNAVAILABLE.getStatusCode(), e);
+        }
+      }
+    }
+  }
+
+  public static <T> Response sendRequest(String uri, String method, T payload) {
+    return sendRequest(uri, method, payload, null);
+  }
+
+  /**
+   * Asynchronous variant of {@link #sendRequest(String, String, Object, SSLContext)}: the request runs on the bounded async executor of the HTTP
+   * client (<tt>http_client_async_threads</tt>), so the calling thread is not blocked while waiting for the response. The returned stage completes
+   * with the response, or exceptionally with the same exceptions <tt>sendRequest</tt> throws (see {@link #joinRequest(CompletionStage)}).
+   * Retries and circuit breakers work the same way. Dependent stages run on the executor threads by default, so they should not block.
+   */
+  public static <T> CompletionStage<Response> sendRequestAsync(String uri, String method, T payload, SSLContext givenContext) {
+    return sendRequestAsync(uri, method, payload, givenContext, null);
+  }
+
+  /**
+   * Variant of {@link #sendRequestAsync(String, String, Object, SSLContext)} for URIs not identifying the target system by their first path segment
+   * (e.g. the notify URIs of the event subscribers): the timeouts of the request are taken from the <i>http_connect_timeout_&lt;timeoutTarget&gt;</i>
+   * and <i>http_read_timeout_&lt;timeoutTarget&gt;</i> config values (if they are set).
+   */
+  public static <T> CompletionStage<Response> sendRequestAsync(String uri, String method, T payload, SSLContext givenContext, String timeoutTarget) {
+    log.info("Sending async " + method + " request to: " + uri);
+    checkMethod(method, "sendRequestAsync");
+    WireFormat format = getWireFormat(uri);
+    Builder request = createRequest(uri, givenContext, format, timeoutTarget);
+    CircuitBreaker breaker = getCircuitBreaker(uri);
+    Span span = startClientSpan(request, uri, method, breaker);
+    CompletableFuture<Response> result = new CompletableFuture<>();
+    sendAttemptAsync(uri, method, payload, format, request, breaker, 0, System.nanoTime(), span, result);
+    return result;
+  }
+
+  private static <T> void sendAttemptAsync(String uri, String method, T payload, WireFormat format, Builder request, CircuitBreaker breaker,
+                                           int attempt, long start, Span span, CompletableFuture<Response> result) {
+    try {
+      checkCircuitBreaker(breaker, uri);
+    } catch (UnavailableServerException e) {
+      recordRequest(breaker, method, "unavailable", start, span);
+      result.completeExceptionally(e);
+      return;
+    }
+
+    InvocationCallback<Response> callback = new InvocationCallback<Response>() {
+      @Override
+      public void completed(Response response) {
+        try {
+          if (isWireFormatRejected(response, format)) {
+            response.close();
+            WireFormat json = fallBackToJson(request, breaker.getHost(), format);
+            sendAttemptAsync(uri, method, payload, json, request, breaker, attempt, start, span, result);
+            return;
+          }
+          response.bufferEntity();
+          breaker.recordSuccess();
+          recordRequest(breaker, method, Integer.toString(response.getStatus()), start, span);
+          if (!(response.getStatusInfo().getFamily() == Family.SUCCESSFUL)) {
+            handleException(response, uri);
+          }
+          result.complete(response);
+        } catch (ProcessingException e) {
+          failed(e);
+        } catch (RuntimeException e) {
+          result.completeExceptionally(e);
+        }
+      }
+
+      @Override
+      public void failed(Throwable throwable) {
+        breaker.recordFailure();
+        if (canRetry(method, uri, attempt, throwable)) {
+          log.warn("Retrying async " + method + " request to " + uri + " after: " + throwable.getMessage());
+          span.addEvent("Retrying after: " + throwable.getMessage());
+          retryScheduler.schedule(() -> sendAttemptAsync(uri, method, payload, format, request, breaker, attempt + 1, start, span, result),
+                                  getRetryDelay(attempt), TimeUnit.MILLISECONDS);
+          return;
+        }
+        recordRequest(breaker, method, "unavailable", start, span);
+        log.error("UnavailableServerException occurred at " + uri, throwable);
+        result.completeExceptionally(
+            new UnavailableServerException("Could not get any response from: " + uri, Status.SERVICE_UNAVAILABLE.getStatusCode(), throwable));
+      }
+    };
+
+    AsyncInvoker invoker = request.async();
+    try {
+      switch (method) {
+        case "GET":
+          invoker.get(callback);
+          break;
+        case "POST":
+          invoker.post(Entity.entity(payload, format.getMediaType()), callback);
+          break;
+        case "PUT":
+          invoker.put(Entity.entity(payload, format.getMediaType()), callback);
+          break;
+        default:
+          invoker.delete(callback);
+      }
+    } catch (RuntimeException e) {
+      //Retries run on the scheduler thread, where a thrown exception would leave the returned stage incomplete
+      result.completeExceptionally(e);
+    }
+  }
+
+  public static <T> CompletionStage<Response> sendRequestAsync(String uri, String method, T payload) {
+    return sendRequestAsync(uri, method, payload, null);
+  }
+
+  /**
+   * Sends a request to a provider of a core service, selected by the load balancing policy from the providers registered in the Service Registry
+   * (see {@link LoadBalancer}). The path is appended to the service URI of the provider, it can be null.
+   */
+  public static <T> Response sendRequest(CoreSystemService service, String path, String method, T payload) {
+    return LoadBalancer.sendRequest(service, path, method, payload);
+  }
+
+  /**
+   * Asynchronous variant of {@link #sendRequest(CoreSystemService, String, String, Object)}.
+   */
+  public static <T> CompletionStage<Response> sendRequestAsync(CoreSystemService service, String path, String method, T payload) {
+    return LoadBalancer.sendRequestAsync(service, path, method, payload);
+  }
+
+  /**
+   * Waits for the response of a {@link #sendRequestAsync(String, String, Object, SSLContext)} call, and throws the exception of a failed request
+   * unwrapped, the same way as the synchronous <tt>sendRequest</tt> would. Also works on the stages derived from the response.
+   */
+  public static <T> T joinRequest(CompletionStage<T> request) {
+    try {
+      return request.toCompletableFuture().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static Builder createRequest(String uri, SSLContext givenContext, WireFormat format, String timeoutTarget) {
     boolean isSecure = false;
     if (uri == null) {
       log.error("sendRequest received null uri");
@@ -129,47 +488,174 @@ public final class Utility {
           "SSL Context is not set, but secure request sending was invoked. An insecure module can not send requests to secure modules.",
           Status.UNAUTHORIZED.getStatusCode());
     }
-    Client usedClient = isSecure ? givenContext != null ? createClient(givenContext) : sslClient : client;
+    Client usedClient = client;
+    if (isSecure) {
+      usedClient = givenContext == null || givenContext == sslContext ? sslClient : contextClients.computeIfAbsent(
+          givenContext, context -> createClient(context, "https-" + Integer.toHexString(System.identityHashCode(context))));
+    }
 
-    Builder request = usedClient.target(UriBuilder.fromUri(uri).build()).request().header("Content-type", "application/json");
-    Response response; // will not be null after the switch-case
-    try {
-      switch (method) {
-        case "GET":
-          response = request.get();
-          break;
-        case "POST":
-          response = request.post(Entity.json(payload));
-          break;
-        case "PUT":
-          response = request.put(Entity.json(payload));
-          break;
-        case "DELETE":
-          response = request.delete();
-          break;
-        default:
-          throw new NotAllowedException("Invalid method type was given to the Utility.sendRequest() method");
+    URI target = UriBuilder.fromUri(uri).build();
+    Builder request = usedClient.target(target).request().header(HttpHeaders.CONTENT_TYPE, format.getMediaType());
+    if (format.isBinary()) {
+      //The servers not supporting the binary format respond in JSON
+      request.accept(format.getMediaType(), MediaType.WILDCARD_TYPE);
+    }
+    //Timeouts can be overridden per target system, by the first path segment of the URI (e.g. http_read_timeout_serviceregistry), or by the caller
+    String system = timeoutTarget != null ? timeoutTarget : getFirstPathSegment(target);
+    if (clientProps.containsKey("http_connect_timeout_" + system)) {
+      request.property(ClientProperties.CONNECT_TIMEOUT, clientProps.getIntProperty("http_connect_timeout_" + system, 0));
+    }
+    if (clientProps.containsKey("http_read_timeout_" + system)) {
+      request.property(ClientProperties.READ_TIMEOUT, clientProps.getIntProperty("http_read_timeout_" + system, 0));
+    }
+    return request;
+  }
+
+  private static String getFirstPathSegment(URI uri) {
+    String path = uri.getPath() == null ? "" : uri.getPath();
+    while (path.startsWith("/")) {
+      path = path.substring(1);
+    }
+    int end = path.indexOf('/');
+    return end == -1 ? path : path.substring(0, end);
+  }
+
+  private static void checkMethod(String method, String caller) {
+    if (!METHODS.contains(method)) {
+      throw new NotAllowedException("Invalid method type was given to the Utility." + caller + "() method");
+    }
+  }
+
+  private static <T> Response invoke(Builder request, String method, T payload, WireFormat format) {
+    switch (method) {
+      case "GET":
+        return request.get();
+      case "POST":
+        return request.post(Entity.entity(payload, format.getMediaType()));
+      case "PUT":
+        return request.put(Entity.entity(payload, format.getMediaType()));
+      default:
+        return request.delete();
+    }
+  }
+
+  private static WireFormat getWireFormat(String uri) {
+    if (!coreWireFormat.isBinary() || uri == null) {
+      return WireFormat.JSON;
+    }
+    URI target = UriBuilder.fromUri(uri).build();
+    if (!coreWireFormatTargets.contains(getFirstPathSegment(target)) || jsonOnlyHosts.contains(String.valueOf(target.getAuthority()))) {
+      return WireFormat.JSON;
+    }
+    return coreWireFormat;
+  }
+
+  private static boolean isWireFormatRejected(Response response, WireFormat format) {
+    return format.isBinary() && response.getStatus() == Status.UNSUPPORTED_MEDIA_TYPE.getStatusCode();
+  }
+
+  //The request is resent in JSON, and the later requests to the host are sent in JSON too
+  private static WireFormat fallBackToJson(Builder request, String host, WireFormat rejectedFormat) {
+    if (jsonOnlyHosts.add(host)) {
+      log.warn(host + " does not accept the " + rejectedFormat + " wire format, JSON is sent instead");
+    }
+    request.header(HttpHeaders.ACCEPT, null).header(HttpHeaders.CONTENT_TYPE, null).header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+    return WireFormat.JSON;
+  }
+
+  private static CircuitBreaker getCircuitBreaker(String uri) {
+    String host = UriBuilder.fromUri(uri).build().getAuthority();
+    return circuitBreakers.computeIfAbsent(String.valueOf(host), key -> new CircuitBreaker(
+        key, clientProps.getIntProperty("http_circuit_breaker_failures", 5), clientProps.getIntProperty("http_circuit_breaker_open_time", 30000)));
+  }
+
+  //Starts the client span of a request, and forwards the trace to the called system (see Tracer)
+  private static Span startClientSpan(Builder request, String uri, String method, CircuitBreaker breaker) {
+    Span span = Tracer.startSpan(method + " " + breaker.getHost(), Span.Kind.CLIENT);
+    if (span.isRecording()) {
+      span.setAttribute("http.method", method).setAttribute("http.url", uri);
+      request.header(Tracer.TRACEPARENT_HEADER, span.toTraceparent());
+    }
+    return span;
+  }
+
+  //Records the latency of a request sent to the host of the breaker, with the response status or "unavailable" if there was no response
+  private static void recordRequest(CircuitBreaker breaker, String method, String outcome, long start, Span span) {
+    Metrics.timer("arrowhead_http_client_requests_seconds", "Latency of the requests sent by the core systems, including the retries", "target",
+                  breaker.getHost(), "method", method, "outcome", outcome).recordSince(start);
+    span.setAttribute("http.status_code", outcome).setError(!outcome.startsWith("2")).end();
+  }
+
+  private static void collectClientStats(MetricsWriter writer) {
+    for (ConnectionPoolStats pool : getConnectionPoolStats()) {
+      writer.gauge("arrowhead_http_client_connections_leased", "Connections of the HTTP client pool in use", pool.getLeased(), "pool",
+                   pool.getName());
+      writer.gauge("arrowhead_http_client_connections_available", "Idle connections of the HTTP client pool", pool.getAvailable(), "pool",
+                   pool.getName());
+      writer.gauge("arrowhead_http_client_connections_pending", "Requests waiting for a connection of the HTTP client pool", pool.getPending(),
+                   "pool", pool.getName());
+      writer.gauge("arrowhead_http_client_connections_max", "Maximum size of the HTTP client pool", pool.getMax(), "pool", pool.getName());
+    }
+    for (CircuitBreaker breaker : getCircuitBreakers()) {
+      for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+        writer.gauge("arrowhead_http_client_circuit_breaker_state", "Current state of the circuit breaker of the target host (1 if active)",
+                     breaker.getState() == state ? 1 : 0, "target", breaker.getHost(), "state", state.name().toLowerCase());
       }
-    } catch (ProcessingException e) {
-      log.error("UnavailableServerException occurred at " + uri, e);
-      throw new UnavailableServerException("Could not get any response from: " + uri, Status.SERVICE_UNAVAILABLE.getStatusCode(), e);
+      writer.counter("arrowhead_http_client_circuit_breaker_rejected_total", "Requests rejected by the open circuit breaker of the target host",
+                     breaker.getRejectedCount(), "target", breaker.getHost());
     }
+  }
 
-    // If the response status code does not start with 2 the request was not successful
-    if (!(response.getStatusInfo().getFamily() == Family.SUCCESSFUL)) {
-      handleException(response, uri);
+  private static void checkCircuitBreaker(CircuitBreaker breaker, String uri) {
+    if (!breaker.allowRequest()) {
+      log.error("Circuit breaker is open, request is not sent to: " + uri);
+      throw new UnavailableServerException("Circuit breaker is open for " + breaker.getHost() + ", request is not sent to: " + uri,
+                                           Status.SERVICE_UNAVAILABLE.getStatusCode());
     }
+  }
 
-    return response;
+  /*
+    Only the requests which never reached the other side are retried: after a read timeout the request may be processed already (and retrying it
+    would hold the calling thread for multiple read timeouts). POST, DELETE and most PUT requests have side effects, so only GET requests and the
+    listed PUT queries are retried.
+   */
+  private static boolean canRetry(String method, String uri, int attempt, Throwable failure) {
+    if (attempt >= clientProps.getIntProperty("http_max_retries", 2) || !isConnectFailure(failure)) {
+      return false;
+    }
+    if ("GET".equals(method)) {
+      return true;
+    }
+    if ("PUT".equals(method)) {
+      String path = UriBuilder.fromUri(uri).build().getPath();
+      for (String retryPath : retryPutPaths) {
+        if (path != null && path.endsWith(retryPath)) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
-  public static <T> Response sendRequest(String uri, String method, T payload) {
-    return sendRequest(uri, method, payload, null);
+  private static boolean isConnectFailure(Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException || cause instanceof NoRouteToHostException
+          || cause instanceof UnknownHostException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  //Exponential backoff with full jitter: a random delay between 0 and http_retry_backoff * 2^attempt milliseconds
+  private static long getRetryDelay(int attempt) {
+    long maxDelay = (long) clientProps.getIntProperty("http_retry_backoff", 100) << attempt;
+    return maxDelay > 0 ? ThreadLocalRandom.current().nextLong(maxDelay + 1) : 0;
   }
 
   private static void handleException(Response response, String uri) {
     //The response body has to be extracted before the stream closes
-    String errorMessageBody = toPrettyJson(null, response.getEntity());
+    String errorMessageBody = response.getEntity() == null ? null : JsonCodec.toJson(response.getEntity());
     if (errorMessageBody == null || errorMessageBody.equals("null")) {
       response.bufferEntity();
       errorMessageBody = response.readEntity(String.class);
@@ -260,34 +746,55 @@ public final class Utility {
     return url;
   }
 
+  /**
+   * Returns the URI of a core service (and for the gateway services the name, address and public key of the provider system too). The results are
+   * cached by {@link CoreServiceResolver}, so the Service Registry is only queried when the cached entry expired.
+   */
   public static String[] getServiceInfo(String serviceId) {
+    return CoreServiceResolver.resolve(serviceId);
+  }
+
+  //Queries every provider of a core service from the Service Registry, the returned list is empty if there is none
+  static CompletionStage<List<String[]>> queryServiceInfo(String serviceId) {
     ArrowheadService service = sslContext == null ? new ArrowheadService(createSD(serviceId, false), Collections.singletonList("JSON"), null)
                                                   : new ArrowheadService(createSD(serviceId, true), Collections.singletonList("JSON"),
                                                                          ArrowheadMain.secureServerMetadata);
     ServiceQueryForm sqf = new ServiceQueryForm(service, true, false);
-    Response response = sendRequest(SR_QUERY_URI, "PUT", sqf);
-    ServiceQueryResult result = response.readEntity(ServiceQueryResult.class);
-    if (result != null && result.isValid()) {
-      ServiceRegistryEntry entry = result.getServiceQueryData().get(0);
-      ArrowheadSystem coreSystem = entry.getProvider();
-      boolean isSecure = false;
-      if (!entry.getProvidedService().getServiceMetadata().isEmpty()) {
-        isSecure = entry.getProvidedService().getServiceMetadata().containsKey("security");
-      } else if (entry.getMetadata() != null) {
-        isSecure = entry.getMetadata().contains("security");
-      }
-      String serviceUri = getUri(coreSystem.getAddress(), coreSystem.getPort(), entry.getServiceURI(), isSecure, false);
-      if (serviceId.equals(CoreSystemService.GW_CONSUMER_SERVICE.getServiceDef()) || serviceId
-          .equals(CoreSystemService.GW_PROVIDER_SERVICE.getServiceDef())) {
-        return new String[]{serviceUri, coreSystem.getSystemName(), coreSystem.getAddress(), coreSystem.getAuthenticationInfo()};
+    return sendRequestAsync(SR_QUERY_URI, "PUT", sqf).thenApply(response -> {
+      ServiceQueryResult result = response.readEntity(ServiceQueryResult.class);
+      List<String[]> providers = new ArrayList<>();
+      if (result != null && result.isValid()) {
+        for (ServiceRegistryEntry entry : result.getServiceQueryData()) {
+          providers.add(getServiceInfo(serviceId, entry));
+        }
       }
-      return new String[]{serviceUri};
-    } else {
-      log.fatal("getServiceInfo: SR query came back empty for: " + serviceId);
-      throw new ServiceConfigurationError(serviceId + " (service) not found in the Service Registry!");
+      return providers;
+    });
+  }
+
+  private static String[] getServiceInfo(String serviceId, ServiceRegistryEntry entry) {
+    ArrowheadSystem coreSystem = entry.getProvider();
+    boolean isSecure = false;
+    if (!entry.getProvidedService().getServiceMetadata().isEmpty()) {
+      isSecure = entry.getProvidedService().getServiceMetadata().containsKey("security");
+    } else if (entry.getMetadata() != null) {
+      isSecure = entry.getMetadata().contains("security");
+    }
+    String serviceUri = getUri(coreSystem.getAddress(), coreSystem.getPort(), entry.getServiceURI(), isSecure, false);
+    if (serviceId.equals(CoreSystemService.GW_CONSUMER_SERVICE.getServiceDef()) || serviceId
+        .equals(CoreSystemService.GW_PROVIDER_SERVICE.getServiceDef())) {
+      return new String[]{serviceUri, coreSystem.getSystemName(), coreSystem.getAddress(), coreSystem.getAuthenticationInfo()};
     }
+    return new String[]{serviceUri};
+  }
+
+  //True if the last request sent to the host of the URI failed without response (see the circuit breakers)
+  static boolean hasFailures(String uri) {
+    CircuitBreaker breaker = circuitBreakers.get(String.valueOf(UriBuilder.fromUri(uri).build().getAuthority()));
+    return breaker != null && breaker.getConsecutiveFailures() > 0;
   }
 
+
   public static List<String> getNeighborCloudURIs() {
     List<NeighborCloud> cloudList = new ArrayList<>(DatabaseManager.getInstance().getAll(NeighborCloud.class, null));
 
@@ -322,57 +829,48 @@ public final class Utility {
     return uri;
   }
 
+  /**
+   * Reads the whole request payload. The payload is returned as it is, and only pretty printed in debug mode.
+   */
   public static String getRequestPayload(InputStream is) {
-    StringBuilder sb = new StringBuilder();
-    String line;
-    try (BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"))) {
-      while ((line = br.readLine()) != null) {
-        sb.append(line);
+    String json = new String(getRequestBytes(is), StandardCharsets.UTF_8).trim();
+    if (json.isEmpty() || !JsonCodec.isDebugMode()) {
+      return json;
+    }
+    return JsonCodec.toPrettyJson(json);
+  }
+
+  /**
+   * Reads the whole request payload in any wire format (see WireFormatFilter.getRequestFormat and ParsedPayloadInterceptor).
+   */
+  public static byte[] getRequestBytes(InputStream is) {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    try (InputStream in = is) {
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        payload.write(buffer, 0, read);
       }
-    } catch (UnsupportedEncodingException e) {
-      log.fatal("getRequestPayload ISReader has unsupported charset set!");
-      throw new AssertionError("getRequestPayload InputStreamReader has unsupported character set! Code needs to be changed!", e);
     } catch (IOException e) {
       log.error("IOException while reading the request payload");
       throw new RuntimeException("IOException occured while reading an incoming request payload", e);
     }
-
-    if (!sb.toString().isEmpty()) {
-      String payload = toPrettyJson(sb.toString(), null);
-      return payload != null ? payload : "";
-    } else {
-      return "";
-    }
+    return payload.toByteArray();
   }
 
+  //Pretty printed JSON for human readers (debug output, logs), see JsonCodec.toJson for compact JSON
   public static String toPrettyJson(String jsonString, Object obj) {
-    try {
-      if (jsonString != null) {
-        jsonString = jsonString.trim();
-        if (jsonString.startsWith("{")) {
-          Object tempObj = mapper.readValue(jsonString, Object.class);
-          return mapper.writeValueAsString(tempObj);
-        } else {
-          Object[] tempObj = mapper.readValue(jsonString, Object[].class);
-          return mapper.writeValueAsString(tempObj);
-        }
-      }
-      if (obj != null) {
-        return mapper.writeValueAsString(obj);
-      }
-    } catch (IOException e) {
-      throw new ArrowheadException(
-          "Jackson library threw IOException during JSON serialization! Wrapping it in RuntimeException. Exception message: " + e.getMessage(), e);
+    if (jsonString != null) {
+      return JsonCodec.toPrettyJson(jsonString.trim());
+    }
+    if (obj != null) {
+      return JsonCodec.toPrettyJson(obj);
     }
     return null;
   }
 
   public static <T> T fromJson(String json, Class<T> parsedClass) {
-    try {
-      return mapper.readValue(json, parsedClass);
-    } catch (IOException e) {
-      throw new ArrowheadException("Jackson library threw exception during JSON parsing!", e);
-    }
+    return JsonCodec.read(json, parsedClass);
   }
 
   public static String createSD(String baseSD, boolean isSecure) {
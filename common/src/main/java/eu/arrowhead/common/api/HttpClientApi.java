@@ -0,0 +1,51 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.api;
+
+import eu.arrowhead.common.Utility;
+import eu.arrowhead.common.messages.ConnectionPoolStats;
+import eu.arrowhead.common.misc.CircuitBreaker;
+import java.util.List;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Management resource of the HTTP clients used between the core systems. Registered in every core system (see ArrowheadMain.commonClasses),
+ * and in secure mode only the local System Operator can use it, like the other management resources.
+ */
+@Path("mgmt/httpclient")
+@Produces(MediaType.APPLICATION_JSON)
+public class HttpClientApi {
+
+  /**
+   * Returns the usage of the pooled connections of every HTTP client, in total and per target host.
+   *
+   * @return List<ConnectionPoolStats>
+   */
+  @GET
+  @Path("pools")
+  public List<ConnectionPoolStats> getConnectionPoolStats() {
+    return Utility.getConnectionPoolStats();
+  }
+
+  /**
+   * Returns the state of the circuit breakers of the target hosts the core system sent requests to.
+   *
+   * @return List<CircuitBreaker>
+   */
+  @GET
+  @Path("circuitbreakers")
+  public List<CircuitBreaker> getCircuitBreakers() {
+    return Utility.getCircuitBreakers();
+  }
+
+}
@@ -0,0 +1,30 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.api;
+
+import eu.arrowhead.common.metrics.Metrics;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+/**
+ * Exports the metrics of the JVM (request latencies, database operations, pools) in the Prometheus text format (registered in every core system,
+ * like HttpClientApi).
+ */
+@Path("metrics")
+public class MetricsApi {
+
+  @GET
+  @Produces(Metrics.CONTENT_TYPE)
+  public String getMetrics() {
+    return Metrics.scrape();
+  }
+
+}
@@ -0,0 +1,56 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.api;
+
+import eu.arrowhead.common.messages.WorkerPoolStats;
+import eu.arrowhead.common.misc.HttpServerFactory;
+import eu.arrowhead.common.misc.Lifecycle;
+import java.util.List;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * Management resource of the HTTP servers of the core system (registered in every core system, like HttpClientApi).
+ */
+@Path("mgmt/server")
+@Produces(MediaType.APPLICATION_JSON)
+public class ServerApi {
+
+  /**
+   * Returns the usage of the worker thread pools of the HTTP servers running in this JVM: threads, active and queued requests, rejected requests.
+   *
+   * @return List<WorkerPoolStats>
+   */
+  @GET
+  @Path("workerpools")
+  public List<WorkerPoolStats> getWorkerPoolStats() {
+    return HttpServerFactory.getWorkerPoolStats();
+  }
+
+  /**
+   * Readiness probe of the server: 200 OK after the core system started, 503 Service Unavailable while it is starting or shutting down.
+   */
+  @GET
+  @Path("ready")
+  @Produces(MediaType.TEXT_PLAIN)
+  public Response isReady(@Context UriInfo uriInfo) {
+    if (Lifecycle.isReady(uriInfo.getBaseUri().getPort())) {
+      return Response.ok("ready").build();
+    }
+    return Response.status(Status.SERVICE_UNAVAILABLE).entity("not ready").build();
+  }
+
+}
@@ -122,8 +122,7 @@ public class ArrowheadService extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
 
     if (forDNSSD) {
       for (String interf : interfaces) {
@@ -134,14 +134,14 @@ public class ArrowheadSystem extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
+    boolean prefixed = false;
     for (final String field : mf) {
       if (field.startsWith(getClass().getSimpleName())) {
-        nonNullFields = prefixFieldNames(nonNullFields);
+        prefixed = true;
         break;
       }
     }
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf, prefixed);
 
     if (throwException && !mf.isEmpty()) {
       throw new BadPayloadException("Missing mandatory fields for " + getClass().getSimpleName() + ": " + String.join(", ", mf));
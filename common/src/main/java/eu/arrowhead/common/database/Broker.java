@@ -114,8 +114,7 @@ public class Broker extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
 
     if (throwException && !mf.isEmpty()) {
       throw new BadPayloadException("Missing mandatory fields for " + getClass().getSimpleName() + ": " + String.join(", ", mf));
@@ -29,6 +29,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.MapKeyColumn;
@@ -41,7 +42,9 @@ import org.hibernate.annotations.Type;
 
 @Entity
 @JsonIgnoreProperties({"alwaysMandatoryFields"})
-@Table(name = "event_filter", uniqueConstraints = {@UniqueConstraint(columnNames = {"event_type", "consumer_system_id"})})
+@Table(name = "event_filter", uniqueConstraints = {@UniqueConstraint(columnNames = {"event_type", "consumer_system_id"})}, indexes = {
+    @Index(name = "idx_event_filter_consumer", columnList = "consumer_system_id"),
+    @Index(name = "idx_event_filter_end_date", columnList = "end_date")})
 public class EventFilter extends ArrowheadBase {
 
   @Transient
@@ -181,8 +184,7 @@ public class EventFilter extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
     if (consumer != null) {
       mf = consumer.missingFields(false, mf);
     }
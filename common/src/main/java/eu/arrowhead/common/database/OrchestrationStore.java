@@ -29,6 +29,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.MapKeyColumn;
@@ -50,7 +51,8 @@ import org.hibernate.annotations.Type;
 @Entity
 @JsonIgnoreProperties({"alwaysMandatoryFields"})
 @Table(name = "orchestration_store", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"arrowhead_service_id", "consumer_system_id", "priority", "is_default"})})
+    @UniqueConstraint(columnNames = {"arrowhead_service_id", "consumer_system_id", "priority", "is_default"})}, indexes = {
+    @Index(name = "idx_orchestration_store_consumer", columnList = "consumer_system_id, arrowhead_service_id, is_default")})
 @Check(constraints = "priority >= 1 AND (provider_cloud_id IS NULL OR is_default = false)")
 public class OrchestrationStore extends ArrowheadBase implements Comparable<OrchestrationStore> {
 
@@ -236,8 +238,7 @@ public class OrchestrationStore extends ArrowheadBase implements Comparable<Orch
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
     if (service != null) {
       mf = service.missingFields(false, false, mf);
     }
@@ -25,6 +25,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -34,7 +35,9 @@ import org.hibernate.annotations.Type;
 
 @Entity
 @JsonIgnoreProperties({"alwaysMandatoryFields", "id", "metadata", "endOfValidity"})
-@Table(name = "service_registry", uniqueConstraints = {@UniqueConstraint(columnNames = {"arrowhead_service_id", "provider_system_id"})})
+@Table(name = "service_registry", uniqueConstraints = {@UniqueConstraint(columnNames = {"arrowhead_service_id", "provider_system_id"})}, indexes = {
+    @Index(name = "idx_service_registry_provider", columnList = "provider_system_id"),
+    @Index(name = "idx_service_registry_end_of_validity", columnList = "end_of_validity")})
 public class ServiceRegistryEntry extends ArrowheadBase {
 
   @Transient
@@ -199,8 +202,7 @@ public class ServiceRegistryEntry extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
     if (providedService != null) {
       mf = providedService.missingFields(false, forDNSSD, mf);
     }
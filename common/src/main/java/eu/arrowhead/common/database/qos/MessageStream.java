@@ -22,6 +22,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.MapKeyColumn;
@@ -31,7 +32,9 @@ import javax.persistence.UniqueConstraint;
 
 @Entity
 @Table(name = "message_stream", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"arrowhead_service_id", "consumer_system_id", "provider_system_id"})})
+    @UniqueConstraint(columnNames = {"arrowhead_service_id", "consumer_system_id", "provider_system_id"})}, indexes = {
+    @Index(name = "idx_message_stream_consumer", columnList = "consumer_system_id"),
+    @Index(name = "idx_message_stream_provider", columnList = "provider_system_id")})
 public class MessageStream {
 
   @Column(name = "id")
@@ -10,6 +10,7 @@
 package eu.arrowhead.common.filter;
 
 import eu.arrowhead.common.Utility;
+import eu.arrowhead.common.json.WireFormat;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -27,6 +28,13 @@ public class InboundDebugFilter implements ContainerRequestFilter {
   public void filter(ContainerRequestContext requestContext) throws IOException {
     if (Boolean.valueOf(System.getProperty("debug_mode", "false"))) {
       System.out.println("New " + requestContext.getMethod() + " request at: " + requestContext.getUriInfo().getRequestUri().toString());
+      WireFormat format = WireFormatFilter.getRequestFormat(requestContext);
+      if (format.isBinary()) {
+        byte[] payload = Utility.getRequestBytes(requestContext.getEntityStream());
+        System.out.println(payload.length == 0 ? "" : format.toPrettyJson(payload));
+        requestContext.setEntityStream(new ByteArrayInputStream(payload));
+        return;
+      }
       String prettyJson = Utility.getRequestPayload(requestContext.getEntityStream());
       System.out.println(prettyJson);
 
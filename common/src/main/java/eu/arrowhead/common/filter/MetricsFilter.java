@@ -0,0 +1,52 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.filter;
+
+import eu.arrowhead.common.metrics.Metrics;
+import java.lang.reflect.Method;
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+//Measures the latency of the requests per resource method, including the time spent in the other filters (this filter gets executed first)
+@Provider
+@PreMatching
+@Priority(Priorities.AUTHENTICATION - 100)
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  private static final String START_PROPERTY = "arrowhead.metrics.start";
+
+  @Context
+  private ResourceInfo resourceInfo;
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    requestContext.setProperty(START_PROPERTY, System.nanoTime());
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+    Object start = requestContext.getProperty(START_PROPERTY);
+    if (start instanceof Long) {
+      Method method = resourceInfo.getResourceMethod();
+      String resource = method == null ? "unmatched" : resourceInfo.getResourceClass().getSimpleName() + "." + method.getName();
+      Metrics.timer("arrowhead_http_server_requests_seconds", "Latency of the requests served by the core systems", "resource", resource, "method",
+                    requestContext.getMethod(), "status", Integer.toString(responseContext.getStatus())).recordSince((Long) start);
+    }
+  }
+
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+
+package eu.arrowhead.common.filter;
+
+import eu.arrowhead.common.Utility;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+
+/**
+ * Single parsing of the request payloads read by the filters (e.g. the AccessControlFilters): the filter parses the payload with
+ * {@link #parse(ContainerRequestContext, Class)}, and the resource method receives the same object, instead of parsing the payload again.
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class ParsedPayloadInterceptor implements ReaderInterceptor {
+
+  private static final String PARSED_PAYLOAD_PROPERTY = "arrowhead.parsed_payload";
+
+  /**
+   * Parses the request payload in the wire format of the request, and keeps the object for the resource method.
+   *
+   * @throws IOException if the payload can not be parsed into the given type (handled by the exception mappers, like for the resource methods)
+   */
+  public static <T> T parse(ContainerRequestContext requestContext, Class<T> type) throws IOException {
+    byte[] payload = Utility.getRequestBytes(requestContext.getEntityStream());
+    //The payload is still available for the resource methods reading a different type
+    requestContext.setEntityStream(new ByteArrayInputStream(payload));
+    T parsedPayload = WireFormatFilter.getRequestFormat(requestContext).readerFor(type).readValue(payload);
+    requestContext.setProperty(PARSED_PAYLOAD_PROPERTY, parsedPayload);
+    return parsedPayload;
+  }
+
+  @Override
+  public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+    Object parsedPayload = context.getProperty(PARSED_PAYLOAD_PROPERTY);
+    if (parsedPayload != null && context.getType().isInstance(parsedPayload)) {
+      context.removeProperty(PARSED_PAYLOAD_PROPERTY);
+      return parsedPayload;
+    }
+    return context.proceed();
+  }
+
+}
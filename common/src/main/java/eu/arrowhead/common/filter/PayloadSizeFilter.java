@@ -0,0 +1,115 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.filter;
+
+import eu.arrowhead.common.exception.BadPayloadException;
+import eu.arrowhead.common.exception.ErrorMessage;
+import eu.arrowhead.common.exception.ExceptionType;
+import eu.arrowhead.common.misc.HttpServerFactory;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.Provider;
+
+/*
+  Limits the request body size to the server_max_post_size config value (set by HttpServerFactory). Requests with a larger Content-Length are
+  rejected before any other filter reads the body, and the entity stream of the rest (e.g. chunked requests) fails with 413 once it passes the limit.
+ */
+@Provider
+@PreMatching
+@Priority(Priorities.AUTHENTICATION - 50)
+public class PayloadSizeFilter implements ContainerRequestFilter {
+
+  @Context
+  private Configuration configuration;
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    Object maxPostSize = configuration.getProperty(HttpServerFactory.MAX_POST_SIZE_PROPERTY);
+    if (!(maxPostSize instanceof Long)) {
+      return;
+    }
+
+    long limit = (Long) maxPostSize;
+    String origin = requestContext.getUriInfo().getAbsolutePath().toString();
+    if (requestContext.getLength() > limit) {
+      ErrorMessage em = new ErrorMessage(getMessage(limit), 413, ExceptionType.BAD_PAYLOAD, origin);
+      requestContext.abortWith(Response.status(Status.REQUEST_ENTITY_TOO_LARGE).entity(em).build());
+    } else if (requestContext.hasEntity()) {
+      requestContext.setEntityStream(new BoundedInputStream(requestContext.getEntityStream(), limit, origin));
+    }
+  }
+
+  private static String getMessage(long limit) {
+    return "Message body is larger than the allowed " + limit + " bytes.";
+  }
+
+  private static class BoundedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private final String origin;
+    private long count;
+
+    BoundedInputStream(InputStream in, long limit, String origin) {
+      super(in);
+      this.limit = limit;
+      this.origin = origin;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        count(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count(n);
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count(skipped);
+      return skipped;
+    }
+
+    //Marking is not supported, so the counted bytes are never read again
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    private void count(long n) {
+      count += n;
+      if (count > limit) {
+        throw new BadPayloadException(getMessage(limit), Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(), origin);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,66 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.filter;
+
+import eu.arrowhead.common.tracing.Span;
+import eu.arrowhead.common.tracing.Tracer;
+import java.lang.reflect.Method;
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+//Records the server span of the requests, continuing the trace of the traceparent header (see Tracer), before every other filter
+@Provider
+@PreMatching
+@Priority(Priorities.AUTHENTICATION - 200)
+public class TracingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  private static final String SPAN_PROPERTY = "arrowhead.tracing.span";
+
+  @Context
+  private ResourceInfo resourceInfo;
+  @Context
+  private Configuration configuration;
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    if (!Tracer.isEnabled()) {
+      return;
+    }
+    Span span = Tracer.startServerSpan(requestContext.getMethod() + " " + requestContext.getUriInfo().getPath(),
+                                       requestContext.getHeaderString(Tracer.TRACEPARENT_HEADER),
+                                       (String) configuration.getProperty(Tracer.SYSTEM_PROPERTY));
+    span.setAttribute("http.method", requestContext.getMethod()).setAttribute("http.url", requestContext.getUriInfo().getRequestUri());
+    requestContext.setProperty(SPAN_PROPERTY, span);
+    Tracer.activate(span);
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+    Object span = requestContext.getProperty(SPAN_PROPERTY);
+    if (span instanceof Span) {
+      Method method = resourceInfo.getResourceMethod();
+      if (method != null) {
+        ((Span) span).setName(resourceInfo.getResourceClass().getSimpleName() + "." + method.getName());
+      }
+      ((Span) span).setAttribute("http.status_code", responseContext.getStatus()).setError(responseContext.getStatus() >= 500).end();
+      Tracer.activate(null);
+    }
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+
+package eu.arrowhead.common.filter;
+
+import eu.arrowhead.common.json.JacksonBinaryProviderAtRest;
+import eu.arrowhead.common.json.WireFormat;
+import java.io.IOException;
+import java.util.List;
+import java.util.StringJoiner;
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Content negotiation of the binary wire formats (see {@link WireFormat}). The resources consume and produce JSON, so the binary Content-Type and
+ * Accept headers are replaced by JSON before the resource matching, and the interceptors switch the entities back to the negotiated format.
+ */
+@Provider
+@PreMatching
+@Priority(Priorities.HEADER_DECORATOR)
+public class WireFormatFilter implements ContainerRequestFilter, ReaderInterceptor, WriterInterceptor {
+
+  private static final String REQUEST_FORMAT_PROPERTY = "arrowhead.request_wire_format";
+  private static final String RESPONSE_FORMAT_PROPERTY = "arrowhead.response_wire_format";
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    WireFormat requestFormat = WireFormat.of(requestContext.getMediaType());
+    if (requestFormat != null && requestFormat.isBinary()) {
+      requestContext.setProperty(REQUEST_FORMAT_PROPERTY, requestFormat);
+      requestContext.getHeaders().putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+    }
+
+    List<String> accept = requestContext.getHeaders().get(HttpHeaders.ACCEPT);
+    if (accept == null) {
+      return;
+    }
+    WireFormat responseFormat = null;
+    StringJoiner otherTypes = new StringJoiner(", ");
+    for (String header : accept) {
+      for (String mediaType : header.split(",")) {
+        WireFormat format = WireFormat.of(mediaType);
+        if (format != null && format.isBinary()) {
+          responseFormat = responseFormat == null ? format : responseFormat;
+        } else if (!mediaType.trim().isEmpty()) {
+          otherTypes.add(mediaType.trim());
+        }
+      }
+    }
+    if (responseFormat != null) {
+      requestContext.setProperty(RESPONSE_FORMAT_PROPERTY, responseFormat);
+      //JSON is preferred, the non-JSON resource methods (e.g. the text/plain echo methods) are still matched by the other accepted types
+      requestContext.getHeaders().putSingle(HttpHeaders.ACCEPT, otherTypes.length() == 0 ? MediaType.APPLICATION_JSON
+                                                                                         : MediaType.APPLICATION_JSON + ", " + otherTypes);
+    }
+  }
+
+  @Override
+  public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+    Object format = context.getProperty(REQUEST_FORMAT_PROPERTY);
+    if (format != null) {
+      context.setMediaType(((WireFormat) format).getMediaType());
+    }
+    return context.proceed();
+  }
+
+  @Override
+  public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+    Object format = context.getProperty(RESPONSE_FORMAT_PROPERTY);
+    if (format != null && WireFormat.of(context.getMediaType()) == WireFormat.JSON && JacksonBinaryProviderAtRest.isMappedType(context.getType())) {
+      MediaType mediaType = ((WireFormat) format).getMediaType();
+      context.setMediaType(mediaType);
+      context.getHeaders().putSingle(HttpHeaders.CONTENT_TYPE, mediaType);
+    }
+    context.proceed();
+  }
+
+  /**
+   * @return the wire format of the request payload, for the filters reading the payload before the resource methods
+   */
+  public static WireFormat getRequestFormat(ContainerRequestContext requestContext) {
+    Object format = requestContext.getProperty(REQUEST_FORMAT_PROPERTY);
+    return format == null ? WireFormat.JSON : (WireFormat) format;
+  }
+
+}
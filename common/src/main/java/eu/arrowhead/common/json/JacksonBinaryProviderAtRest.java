@@ -0,0 +1,71 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+
+package eu.arrowhead.common.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Reads and writes the entities in the binary wire formats (CBOR, Smile), with the cached readers and writers of {@link WireFormat}.
+ */
+@Provider
+@Consumes({WireFormat.APPLICATION_CBOR, WireFormat.APPLICATION_SMILE})
+@Produces({WireFormat.APPLICATION_CBOR, WireFormat.APPLICATION_SMILE})
+public class JacksonBinaryProviderAtRest implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+  /**
+   * @return true if the entity type is mapped by Jackson, false for the raw entities (String, byte[], streams) written by the built-in providers
+   */
+  public static boolean isMappedType(Class<?> type) {
+    return !(CharSequence.class.isAssignableFrom(type) || type == byte[].class || InputStream.class.isAssignableFrom(type)
+        || StreamingOutput.class.isAssignableFrom(type));
+  }
+
+  @Override
+  public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    WireFormat format = WireFormat.of(mediaType);
+    return format != null && format.isBinary() && isMappedType(type);
+  }
+
+  @Override
+  public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                         MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+    return WireFormat.of(mediaType).readerFor(genericType).readValue(entityStream);
+  }
+
+  @Override
+  public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return isReadable(type, genericType, annotations, mediaType);
+  }
+
+  @Override
+  public long getSize(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return -1;
+  }
+
+  @Override
+  public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                      MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+    WireFormat.of(mediaType).writerFor(value.getClass()).writeValue(entityStream, value);
+  }
+
+}
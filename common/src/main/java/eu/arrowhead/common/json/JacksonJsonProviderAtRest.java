@@ -16,9 +16,12 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import com.fasterxml.jackson.jaxrs.json.JsonEndpointConfig;
+import java.lang.annotation.Annotation;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.ext.Provider;
@@ -27,26 +30,36 @@ import javax.ws.rs.ext.Provider;
 @Produces(MediaType.APPLICATION_JSON)
 public class JacksonJsonProviderAtRest extends JacksonJaxbJsonProvider {
 
-  private static final ObjectMapper mapper = new ObjectMapper();
+  private static final ObjectMapper mapper = configureMapper(new ObjectMapper());
 
-  static {
+  //Also configures the mappers of the binary wire formats (see WireFormat), so every format has the same data model
+  static ObjectMapper configureMapper(ObjectMapper mapper) {
     mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     mapper.configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES, true);
     mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-    mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
     mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     mapper.registerModule(new JavaTimeModule());
     mapper.setDefaultPropertyInclusion(JsonInclude.Value.construct(Include.ALWAYS, Include.NON_NULL));
     mapper.setSerializationInclusion(Include.NON_NULL);
     mapper.setVisibility(PropertyAccessor.ALL, Visibility.NONE);
     mapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+    return mapper;
   }
 
+  //The providers of the servers are created after the command line arguments are processed, the HTTP client sends compact JSON anyway
+  private final boolean prettyPrint = JsonCodec.isDebugMode();
+
   public JacksonJsonProviderAtRest() {
     super();
     setMapper(mapper);
   }
 
+  //Pretty printing is set on the writers of this provider only, the shared mapper (and so the JsonCodec writers) always writes compact JSON
+  @Override
+  protected JsonEndpointConfig _configForWriting(ObjectWriter writer, Annotation[] annotations) {
+    return super._configForWriting(prettyPrint ? writer.withDefaultPrettyPrinter() : writer, annotations);
+  }
+
   public static ObjectMapper getMapper() {
     return mapper;
   }
@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import eu.arrowhead.common.exception.ArrowheadException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON serialization of the messages (and entities) outside of the JAX-RS providers, with the ObjectMapper of {@link JacksonJsonProviderAtRest}.
+ * The ObjectReaders and ObjectWriters are created once per type and reused, since they resolve the (de)serializer of the root type in advance.
+ * The values are read from and written to streams directly, without intermediate Strings, and the output is compact, except for the explicitly
+ * pretty printed debug output.
+ */
+public final class JsonCodec {
+
+  private static final ObjectMapper mapper = JacksonJsonProviderAtRest.getMapper();
+  private static final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+  //Untyped writers, resolving the serializer from the runtime class of the value
+  private static final ObjectWriter writer = mapper.writer();
+  private static final ObjectWriter prettyWriter = mapper.writerWithDefaultPrettyPrinter();
+  //For writing many values into one generator (e.g. streamed arrays), where flushing after each value would defeat the buffering
+  private static final ObjectWriter streamingWriter = writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+  private JsonCodec() throws AssertionError {
+    throw new AssertionError("Arrowhead Common:JsonCodec is a non-instantiable class");
+  }
+
+  public static boolean isDebugMode() {
+    return Boolean.valueOf(System.getProperty("debug_mode", "false"));
+  }
+
+  public static ObjectReader readerFor(Class<?> type) {
+    ObjectReader reader = readers.get(type);
+    return reader != null ? reader : readers.computeIfAbsent(type, mapper::readerFor);
+  }
+
+  public static ObjectWriter writerFor(Class<?> type) {
+    ObjectWriter typedWriter = writers.get(type);
+    return typedWriter != null ? typedWriter : writers.computeIfAbsent(type, mapper::writerFor);
+  }
+
+  public static ObjectWriter getStreamingWriter() {
+    return streamingWriter;
+  }
+
+  public static <T> T read(InputStream in, Class<T> type) throws IOException {
+    return readerFor(type).readValue(in);
+  }
+
+  /**
+   * @throws ArrowheadException if the JSON can not be parsed into the given type
+   */
+  public static <T> T read(String json, Class<T> type) {
+    try {
+      return readerFor(type).readValue(json);
+    } catch (IOException e) {
+      throw new ArrowheadException("Jackson library threw exception during JSON parsing!", e);
+    }
+  }
+
+  public static void write(Object value, OutputStream out) throws IOException {
+    (value == null ? writer : writerFor(value.getClass())).writeValue(out, value);
+  }
+
+  public static String toJson(Object value) {
+    try {
+      return (value == null ? writer : writerFor(value.getClass())).writeValueAsString(value);
+    } catch (IOException e) {
+      throw new ArrowheadException("Jackson library threw IOException during JSON serialization! Exception message: " + e.getMessage(), e);
+    }
+  }
+
+  public static String toPrettyJson(Object value) {
+    try {
+      return prettyWriter.writeValueAsString(value);
+    } catch (IOException e) {
+      throw new ArrowheadException("Jackson library threw IOException during JSON serialization! Exception message: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Reformats the given JSON document (object or array) with indentation.
+   */
+  public static String toPrettyJson(String json) {
+    try {
+      return prettyWriter.writeValueAsString(mapper.readTree(json));
+    } catch (IOException e) {
+      throw new ArrowheadException("Jackson library threw IOException during JSON serialization! Exception message: " + e.getMessage(), e);
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+
+package eu.arrowhead.common.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import eu.arrowhead.common.exception.ArrowheadException;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Wire formats of the messages. JSON is the default format of every system, the binary Jackson formats (CBOR, Smile) carry the same data model
+ * with smaller payloads and cheaper parsing, and are negotiated between the core systems (see <tt>core_wire_format</tt> and
+ * {@link eu.arrowhead.common.filter.WireFormatFilter}).
+ */
+public enum WireFormat {
+
+  JSON(MediaType.APPLICATION_JSON, null),
+  CBOR(WireFormat.APPLICATION_CBOR, new CBORFactory()),
+  SMILE(WireFormat.APPLICATION_SMILE, new SmileFactory());
+
+  public static final String APPLICATION_CBOR = "application/cbor";
+  public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+  private final MediaType mediaType;
+  private final ObjectMapper mapper;
+  private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+  private final Map<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+  WireFormat(String mediaType, JsonFactory binaryFactory) {
+    this.mediaType = MediaType.valueOf(mediaType);
+    if (binaryFactory == null) {
+      mapper = JacksonJsonProviderAtRest.getMapper();
+    } else {
+      //The entity streams are closed by the JAX-RS runtime
+      binaryFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      binaryFactory.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      mapper = JacksonJsonProviderAtRest.configureMapper(new ObjectMapper(binaryFactory));
+    }
+  }
+
+  public MediaType getMediaType() {
+    return mediaType;
+  }
+
+  public boolean isBinary() {
+    return this != JSON;
+  }
+
+  public ObjectReader readerFor(Type type) {
+    if (this == JSON && type instanceof Class) {
+      return JsonCodec.readerFor((Class<?>) type);
+    }
+    ObjectReader reader = readers.get(type);
+    return reader != null ? reader : readers.computeIfAbsent(type, key -> mapper.readerFor(mapper.getTypeFactory().constructType(key)));
+  }
+
+  public ObjectWriter writerFor(Class<?> type) {
+    if (this == JSON) {
+      return JsonCodec.writerFor(type);
+    }
+    ObjectWriter writer = writers.get(type);
+    return writer != null ? writer : writers.computeIfAbsent(type, key -> mapper.writerFor(mapper.getTypeFactory().constructType(key)));
+  }
+
+  /**
+   * Converts the payload to pretty printed JSON, for the debug output of the binary payloads.
+   */
+  public String toPrettyJson(byte[] payload) {
+    try {
+      return JsonCodec.toPrettyJson(mapper.readTree(payload));
+    } catch (IOException e) {
+      throw new ArrowheadException("Jackson library threw exception during " + name() + " parsing!", e);
+    }
+  }
+
+  /**
+   * @return the wire format of the media type (parameters are ignored), or null if it is not a wire format
+   */
+  public static WireFormat of(String mediaType) {
+    if (mediaType == null) {
+      return null;
+    }
+    int end = mediaType.indexOf(';');
+    String type = (end == -1 ? mediaType : mediaType.substring(0, end)).trim();
+    for (WireFormat format : values()) {
+      if (type.equalsIgnoreCase(format.mediaType.toString())) {
+        return format;
+      }
+    }
+    return null;
+  }
+
+  public static WireFormat of(MediaType mediaType) {
+    return mediaType == null ? null : of(mediaType.getType() + "/" + mediaType.getSubtype());
+  }
+
+}
@@ -9,44 +9,120 @@
 
 package eu.arrowhead.common.messages;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class ArrowheadBase {
 
+  //Getters of the declared fields by class and field name, built once per class instead of looking up and accessing the fields reflectively on
+  //every validation
+  private static final Map<Class<?>, Map<String, FieldGetter>> fieldGetters = new ConcurrentHashMap<>();
+  //Field names prefixed with the class name in the missing fields of the systems and clouds (see prefixFieldNames)
+  private static final Set<String> PREFIXED_FIELDS = new HashSet<>(Arrays.asList("address", "port", "authenticationInfo"));
+
   //Collection and Map field names will get added only if they are NOT empty!
   protected Set<String> getFieldNamesWithNonNullValue() {
-    Class aClass = getClass();
-    Field[] fields = aClass.getDeclaredFields();
-    Set<String> lines = new HashSet<>(fields.length);
+    Collection<FieldGetter> getters = getFieldGetters(getClass()).values();
+    Set<String> lines = new HashSet<>(getters.size());
+    for (FieldGetter getter : getters) {
+      if (hasValue(getter.get(this))) {
+        lines.add(getter.name);
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Removes the names of the fields with a value from the given (mandatory) field names, the same way as removing the
+   * {@link #getFieldNamesWithNonNullValue()} set, but only the given fields are read.
+   */
+  protected void removeFieldsWithValue(Set<String> fieldNames) {
+    removeFieldsWithValue(fieldNames, false);
+  }
+
+  /**
+   * @param prefixed the address, port and authenticationInfo fields are only matched with the class name prefix (e.g. ArrowheadSystem:address), as
+   *     after {@link #prefixFieldNames(Set)}
+   */
+  protected void removeFieldsWithValue(Set<String> fieldNames, boolean prefixed) {
+    Map<String, FieldGetter> getters = getFieldGetters(getClass());
+    String prefix = prefixed ? getClass().getSimpleName() + ":" : null;
+    fieldNames.removeIf(name -> {
+      String fieldName = name;
+      if (prefixed) {
+        if (PREFIXED_FIELDS.contains(name)) {
+          return false;
+        }
+        if (name.startsWith(prefix) && PREFIXED_FIELDS.contains(name.substring(prefix.length()))) {
+          fieldName = name.substring(prefix.length());
+        }
+      }
+      FieldGetter getter = getters.get(fieldName);
+      return getter != null && hasValue(getter.get(this));
+    });
+  }
+
+  private static boolean hasValue(Object o) {
+    if (o instanceof Collection<?>) {
+      return !((Collection) o).isEmpty();
+    } else if (o instanceof Map<?, ?>) {
+      return !((Map) o).isEmpty();
+    }
+    return o != null;
+  }
+
+  private static Map<String, FieldGetter> getFieldGetters(Class<?> aClass) {
+    Map<String, FieldGetter> getters = fieldGetters.get(aClass);
+    return getters != null ? getters : fieldGetters.computeIfAbsent(aClass, ArrowheadBase::createFieldGetters);
+  }
+
+  private static Map<String, FieldGetter> createFieldGetters(Class<?> aClass) {
+    Map<String, FieldGetter> getters = new HashMap<>();
+    for (Field field : aClass.getDeclaredFields()) {
+      getters.put(field.getName(), new FieldGetter(field));
+    }
+    return getters;
+  }
+
+  //Field getter with the (Object)Object signature, static fields ignore the instance argument
+  private static final class FieldGetter {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
 
-    Arrays.stream(fields).forEach(field -> {
+    private final String name;
+    private final MethodHandle handle;
+
+    private FieldGetter(Field field) {
+      name = field.getName();
       field.setAccessible(true);
       try {
-        Object o = field.get(this);
-        if (o != null) {
-          if (o instanceof Collection<?>) {
-            if (!((Collection) o).isEmpty()) {
-              lines.add(field.getName());
-            }
-          } else if (o instanceof Map<?, ?>) {
-            if (!((Map) o).isEmpty()) {
-              lines.add(field.getName());
-            }
-          } else {
-            lines.add(field.getName());
-          }
+        MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+        if (Modifier.isStatic(field.getModifiers())) {
+          getter = MethodHandles.dropArguments(getter, 0, Object.class);
         }
-      } catch (final IllegalAccessException e) {
-        throw new AssertionError(field.toString() + " field is not accessible!");
+        handle = getter.asType(GETTER_TYPE);
+      } catch (IllegalAccessException e) {
+        throw new AssertionError(field.toString() + " field is not accessible!", e);
       }
-    });
+    }
 
-    return lines;
+    private Object get(Object instance) {
+      try {
+        return (Object) handle.invokeExact(instance);
+      } catch (Throwable t) {
+        throw new AssertionError(name + " field is not accessible!", t);
+      }
+    }
   }
 
   protected Set<String> prefixFieldNames(Set<String> nonNullFields) {
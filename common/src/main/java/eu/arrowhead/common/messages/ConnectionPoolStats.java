@@ -0,0 +1,86 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.messages;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection usage of one pooled HTTP client of Utility.sendRequest (or of one route of it, in the routes list).
+ */
+public class ConnectionPoolStats {
+
+  private String name;
+  private int leased;
+  private int pending;
+  private int available;
+  private int max;
+  private List<ConnectionPoolStats> routes = new ArrayList<>();
+
+  public ConnectionPoolStats() {
+  }
+
+  public ConnectionPoolStats(String name, int leased, int pending, int available, int max) {
+    this.name = name;
+    this.leased = leased;
+    this.pending = pending;
+    this.available = available;
+    this.max = max;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public int getLeased() {
+    return leased;
+  }
+
+  public void setLeased(int leased) {
+    this.leased = leased;
+  }
+
+  public int getPending() {
+    return pending;
+  }
+
+  public void setPending(int pending) {
+    this.pending = pending;
+  }
+
+  public int getAvailable() {
+    return available;
+  }
+
+  public void setAvailable(int available) {
+    this.available = available;
+  }
+
+  public int getMax() {
+    return max;
+  }
+
+  public void setMax(int max) {
+    this.max = max;
+  }
+
+  public List<ConnectionPoolStats> getRoutes() {
+    return routes;
+  }
+
+  public void setRoutes(List<ConnectionPoolStats> routes) {
+    this.routes = routes;
+  }
+
+}
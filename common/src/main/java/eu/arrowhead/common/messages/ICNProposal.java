@@ -122,8 +122,7 @@ public class ICNProposal extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
     if (requestedService != null) {
       mf = requestedService.missingFields(false, false, mf);
     }
@@ -90,8 +90,7 @@ public class ICNRequestForm extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
     if (requestedService != null) {
       mf = requestedService.missingFields(false, false, mf);
     }
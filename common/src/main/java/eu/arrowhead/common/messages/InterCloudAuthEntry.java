@@ -56,8 +56,7 @@ public class InterCloudAuthEntry extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
 
     if (cloud != null) {
       mf = cloud.missingFields(false, mf);
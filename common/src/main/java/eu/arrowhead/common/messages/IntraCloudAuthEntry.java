@@ -66,8 +66,7 @@ public class IntraCloudAuthEntry extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
 
     if (consumer != null) {
       mf = consumer.missingFields(false, mf);
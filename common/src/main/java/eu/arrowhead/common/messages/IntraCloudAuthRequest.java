@@ -64,8 +64,7 @@ public class IntraCloudAuthRequest extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
     if (service != null) {
       mf = service.missingFields(false, false, mf);
     }
@@ -55,8 +55,7 @@ public class OrchestrationStoreQuery extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
     if (requestedService != null) {
       mf = requestedService.missingFields(false, false, mf);
     }
@@ -63,8 +63,7 @@ public class PublishEvent extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
     if (source != null) {
       mf = source.missingFields(false, mf);
     }
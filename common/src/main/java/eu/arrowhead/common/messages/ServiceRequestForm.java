@@ -129,8 +129,7 @@ public class ServiceRequestForm extends ArrowheadBase {
       mf.addAll(mandatoryFields);
     }
 
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
     if (requesterSystem == null) {
       mf.add("requesterSystem");
     } else {
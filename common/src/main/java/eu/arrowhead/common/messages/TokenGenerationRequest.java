@@ -88,8 +88,7 @@ public class TokenGenerationRequest extends ArrowheadBase {
     if (mandatoryFields != null) {
       mf.addAll(mandatoryFields);
     }
-    Set<String> nonNullFields = getFieldNamesWithNonNullValue();
-    mf.removeAll(nonNullFields);
+    removeFieldsWithValue(mf);
 
     if (consumer != null) {
       mf = consumer.missingFields(false, mf);
@@ -0,0 +1,126 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.messages;
+
+/**
+ * Usage of the worker thread pool of one HTTP server of a core system (see HttpServerFactory). Active threads run requests, queued tasks wait
+ * for a free worker thread, rejected tasks were dropped because the queue was full.
+ */
+public class WorkerPoolStats {
+
+  private String name;
+  private boolean virtualThreads;
+  private int corePoolSize;
+  private int maxPoolSize;
+  private int queueLimit;
+  private int threads;
+  private int activeThreads;
+  private int queuedTasks;
+  private long completedTasks;
+  private long rejectedTasks;
+
+  public WorkerPoolStats() {
+  }
+
+  public WorkerPoolStats(String name, boolean virtualThreads, int corePoolSize, int maxPoolSize, int queueLimit, int threads, int activeThreads,
+                         int queuedTasks, long completedTasks, long rejectedTasks) {
+    this.name = name;
+    this.virtualThreads = virtualThreads;
+    this.corePoolSize = corePoolSize;
+    this.maxPoolSize = maxPoolSize;
+    this.queueLimit = queueLimit;
+    this.threads = threads;
+    this.activeThreads = activeThreads;
+    this.queuedTasks = queuedTasks;
+    this.completedTasks = completedTasks;
+    this.rejectedTasks = rejectedTasks;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+
+  public int getCorePoolSize() {
+    return corePoolSize;
+  }
+
+  public void setCorePoolSize(int corePoolSize) {
+    this.corePoolSize = corePoolSize;
+  }
+
+  public int getMaxPoolSize() {
+    return maxPoolSize;
+  }
+
+  public void setMaxPoolSize(int maxPoolSize) {
+    this.maxPoolSize = maxPoolSize;
+  }
+
+  public int getQueueLimit() {
+    return queueLimit;
+  }
+
+  public void setQueueLimit(int queueLimit) {
+    this.queueLimit = queueLimit;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  public int getActiveThreads() {
+    return activeThreads;
+  }
+
+  public void setActiveThreads(int activeThreads) {
+    this.activeThreads = activeThreads;
+  }
+
+  public int getQueuedTasks() {
+    return queuedTasks;
+  }
+
+  public void setQueuedTasks(int queuedTasks) {
+    this.queuedTasks = queuedTasks;
+  }
+
+  public long getCompletedTasks() {
+    return completedTasks;
+  }
+
+  public void setCompletedTasks(long completedTasks) {
+    this.completedTasks = completedTasks;
+  }
+
+  public long getRejectedTasks() {
+    return rejectedTasks;
+  }
+
+  public void setRejectedTasks(long rejectedTasks) {
+    this.rejectedTasks = rejectedTasks;
+  }
+
+}
@@ -0,0 +1,42 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonically increasing count (e.g. number of handled requests). Created and registered by {@link Metrics#counter(String, String, String...)}.
+ */
+public class Counter extends Metric {
+
+  private final LongAdder count = new LongAdder();
+
+  Counter(String[] labels) {
+    super(labels);
+  }
+
+  public void inc() {
+    count.increment();
+  }
+
+  public void inc(long amount) {
+    count.add(amount);
+  }
+
+  public long get() {
+    return count.sum();
+  }
+
+  @Override
+  void write(MetricsWriter writer, String name, String help) {
+    writer.sample(name, help, "counter", name, labels, get());
+  }
+
+}
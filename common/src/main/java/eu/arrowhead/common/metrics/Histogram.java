@@ -0,0 +1,79 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of observed values (e.g. payload sizes), counted in fixed buckets. Exported as the cumulative <tt>_bucket</tt> series of the
+ * Prometheus histograms, with the sum and count of the observations. Created and registered by
+ * {@link Metrics#histogram(String, String, double[], String...)}.
+ */
+public class Histogram extends Metric {
+
+  //Upper bounds of the buckets in ascending order, the +Inf bucket is implicit
+  private final double[] bounds;
+  private final LongAdder[] buckets;
+  private final LongAdder count = new LongAdder();
+  private final DoubleAdder sum = new DoubleAdder();
+
+  Histogram(double[] bounds, String[] labels) {
+    super(labels);
+    this.bounds = bounds.clone();
+    Arrays.sort(this.bounds);
+    buckets = new LongAdder[this.bounds.length];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  public void observe(double value) {
+    for (int i = 0; i < bounds.length; i++) {
+      if (value <= bounds[i]) {
+        buckets[i].increment();
+        break;
+      }
+    }
+    count.increment();
+    sum.add(value);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public double getSum() {
+    return sum.sum();
+  }
+
+  @Override
+  void write(MetricsWriter writer, String name, String help) {
+    //The count is read first, so the cumulative buckets never exceed it while observations are recorded concurrently
+    long total = count.sum();
+    long cumulative = 0;
+    for (int i = 0; i < bounds.length; i++) {
+      cumulative = Math.min(cumulative + buckets[i].sum(), total);
+      writer.sample(name, help, "histogram", name + "_bucket", withLabel(labels, "le", MetricsWriter.format(bounds[i])), cumulative);
+    }
+    writer.sample(name, help, "histogram", name + "_bucket", withLabel(labels, "le", "+Inf"), total);
+    writer.sample(name, help, "histogram", name + "_sum", labels, sum.sum());
+    writer.sample(name, help, "histogram", name + "_count", labels, total);
+  }
+
+  private static String[] withLabel(String[] labels, String name, String value) {
+    String[] extended = Arrays.copyOf(labels, labels.length + 2);
+    extended[labels.length] = name;
+    extended[labels.length + 1] = value;
+    return extended;
+  }
+
+}
@@ -0,0 +1,26 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.metrics;
+
+/**
+ * Base class of the metrics stored in the {@link Metrics} registry: one labelled time series (or, for histograms, a group of series).
+ */
+abstract class Metric {
+
+  //Label name and value pairs
+  final String[] labels;
+
+  Metric(String[] labels) {
+    this.labels = labels;
+  }
+
+  abstract void write(MetricsWriter writer, String name, String help);
+
+}
@@ -0,0 +1,182 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.metrics;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.RuntimeMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.apache.log4j.Logger;
+
+/**
+ * JVM wide metrics registry of the core systems, exported in the Prometheus text format by the <tt>metrics</tt> endpoint of every core system (see
+ * MetricsApi).
+ * <ul>
+ * <li>Counters, histograms and timers are registered by name and label values on first use, and updated by the instrumented code. Hot paths should
+ * keep the returned metric instead of looking it up for every update, when the label values allow it.</li>
+ * <li>Values maintained elsewhere (pool sizes, cache statistics, JVM statistics) are read by collectors at scrape time.</li>
+ * </ul>
+ */
+public final class Metrics {
+
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  /**
+   * Writes the current values of metrics maintained outside of the registry, called at every scrape.
+   */
+  @FunctionalInterface
+  public interface Collector {
+
+    void collect(MetricsWriter writer);
+  }
+
+  private static final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+  private static final Map<String, Collector> collectors = new ConcurrentHashMap<>();
+  private static final Logger log = Logger.getLogger(Metrics.class.getName());
+
+  private static class Family {
+
+    final String help;
+    final Class<? extends Metric> type;
+    final ConcurrentMap<List<String>, Metric> metrics = new ConcurrentHashMap<>();
+
+    Family(String help, Class<? extends Metric> type) {
+      this.help = help;
+      this.type = type;
+    }
+  }
+
+  static {
+    addCollector("jvm", Metrics::collectJvmStats);
+  }
+
+  private Metrics() throws AssertionError {
+    throw new AssertionError("Arrowhead Common:Metrics is a non-instantiable class");
+  }
+
+  /**
+   * @param labels label name and value pairs
+   */
+  public static Counter counter(String name, String help, String... labels) {
+    return register(name, help, Counter.class, labels, () -> new Counter(labels.clone()));
+  }
+
+  /**
+   * @param bounds upper bounds of the buckets, used when the metric is created
+   * @param labels label name and value pairs
+   */
+  public static Histogram histogram(String name, String help, double[] bounds, String... labels) {
+    return register(name, help, Histogram.class, labels, () -> new Histogram(bounds, labels.clone()));
+  }
+
+  /**
+   * @param name should end with <tt>_seconds</tt>
+   * @param labels label name and value pairs
+   */
+  public static Timer timer(String name, String help, String... labels) {
+    return register(name, help, Timer.class, labels, () -> new Timer(labels.clone()));
+  }
+
+  /**
+   * Adds a collector, replacing the previous one with the same name.
+   */
+  public static void addCollector(String name, Collector collector) {
+    collectors.put(name, collector);
+  }
+
+  /**
+   * @return every metric in the Prometheus text format
+   */
+  public static String scrape() {
+    MetricsWriter writer = new MetricsWriter();
+    for (Map.Entry<String, Family> family : families.entrySet()) {
+      for (Metric metric : family.getValue().metrics.values()) {
+        metric.write(writer, family.getKey(), family.getValue().help);
+      }
+    }
+    for (Map.Entry<String, Collector> collector : collectors.entrySet()) {
+      try {
+        collector.getValue().collect(writer);
+      } catch (RuntimeException e) {
+        log.warn("Metrics collector " + collector.getKey() + " failed: " + e.toString());
+      }
+    }
+    return writer.toString();
+  }
+
+  private static <T extends Metric> T register(String name, String help, Class<T> type, String[] labels, Supplier<T> factory) {
+    if (labels.length % 2 != 0) {
+      throw new IllegalArgumentException("Labels of the metric " + name + " must be name and value pairs");
+    }
+    Family family = families.get(name);
+    if (family == null) {
+      family = families.computeIfAbsent(name, key -> new Family(help, type));
+    }
+    if (family.type != type) {
+      throw new IllegalArgumentException("Metric " + name + " is already registered as " + family.type.getSimpleName());
+    }
+    List<String> key = Arrays.asList(labels);
+    Metric metric = family.metrics.get(key);
+    if (metric == null) {
+      metric = family.metrics.computeIfAbsent(key, labelValues -> factory.get());
+    }
+    return type.cast(metric);
+  }
+
+  private static void collectJvmStats(MetricsWriter writer) {
+    writeMemoryUsage(writer, "heap", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage());
+    writeMemoryUsage(writer, "nonheap", ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage());
+
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    writer.gauge("jvm_threads_current", "Current thread count of the JVM", threads.getThreadCount());
+    writer.gauge("jvm_threads_daemon", "Daemon thread count of the JVM", threads.getDaemonThreadCount());
+    writer.gauge("jvm_threads_peak", "Peak thread count of the JVM", threads.getPeakThreadCount());
+
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      writer.counter("jvm_gc_collections_total", "Number of garbage collections", gc.getCollectionCount(), "gc", gc.getName());
+      writer.counter("jvm_gc_collection_seconds_total", "Time spent in garbage collections", gc.getCollectionTime() / 1000.0, "gc", gc.getName());
+    }
+
+    ClassLoadingMXBean classes = ManagementFactory.getClassLoadingMXBean();
+    writer.gauge("jvm_classes_loaded", "Number of classes currently loaded in the JVM", classes.getLoadedClassCount());
+
+    RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+    writer.gauge("process_start_time_seconds", "Start time of the process since the epoch", runtime.getStartTime() / 1000.0);
+    writer.gauge("process_uptime_seconds", "Uptime of the process", runtime.getUptime() / 1000.0);
+
+    OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    writer.gauge("jvm_available_processors", "Number of processors available to the JVM", os.getAvailableProcessors());
+    if (os.getSystemLoadAverage() >= 0) {
+      writer.gauge("system_load_average_1m", "System load average of the last minute", os.getSystemLoadAverage());
+    }
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      writer.counter("process_cpu_seconds_total", "CPU time used by the process",
+                     ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime() / 1e9);
+    }
+  }
+
+  private static void writeMemoryUsage(MetricsWriter writer, String area, MemoryUsage usage) {
+    writer.gauge("jvm_memory_bytes_used", "Used memory of the JVM memory area", usage.getUsed(), "area", area);
+    writer.gauge("jvm_memory_bytes_committed", "Committed memory of the JVM memory area", usage.getCommitted(), "area", area);
+    if (usage.getMax() >= 0) {
+      writer.gauge("jvm_memory_bytes_max", "Maximum memory of the JVM memory area", usage.getMax(), "area", area);
+    }
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds the Prometheus text exposition format (version 0.0.4). The samples are grouped by metric family, so the samples of a family written by
+ * different metrics or collectors stay contiguous, under one HELP and TYPE line.
+ */
+public class MetricsWriter {
+
+  private final Map<String, Family> families = new TreeMap<>();
+
+  private static class Family {
+
+    final String help;
+    final String type;
+    final StringBuilder samples = new StringBuilder();
+
+    Family(String help, String type) {
+      this.help = help;
+      this.type = type;
+    }
+  }
+
+  /**
+   * Writes a value, which can go up and down (e.g. the size of a pool).
+   *
+   * @param labels label name and value pairs
+   */
+  public void gauge(String name, String help, double value, String... labels) {
+    sample(name, help, "gauge", name, labels, value);
+  }
+
+  /**
+   * Writes a monotonically increasing value maintained outside of the registry (e.g. the cache hits). The name should end with <tt>_total</tt>.
+   *
+   * @param labels label name and value pairs
+   */
+  public void counter(String name, String help, double value, String... labels) {
+    sample(name, help, "counter", name, labels, value);
+  }
+
+  void sample(String family, String help, String type, String sampleName, String[] labels, double value) {
+    StringBuilder samples = families.computeIfAbsent(family, name -> new Family(help, type)).samples;
+    samples.append(sampleName);
+    if (labels.length > 0) {
+      samples.append('{');
+      for (int i = 0; i + 1 < labels.length; i += 2) {
+        if (i > 0) {
+          samples.append(',');
+        }
+        samples.append(labels[i]).append("=\"").append(escape(labels[i + 1], true)).append('"');
+      }
+      samples.append('}');
+    }
+    samples.append(' ').append(format(value)).append('\n');
+  }
+
+  static String format(double value) {
+    if (Double.isNaN(value)) {
+      return "NaN";
+    }
+    if (Double.isInfinite(value)) {
+      return value > 0 ? "+Inf" : "-Inf";
+    }
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return Double.toString(value);
+  }
+
+  private static String escape(String text, boolean quoted) {
+    if (text == null) {
+      return "";
+    }
+    StringBuilder escaped = null;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      String replacement = c == '\\' ? "\\\\" : c == '\n' ? "\\n" : c == '"' && quoted ? "\\\"" : null;
+      if (replacement != null && escaped == null) {
+        escaped = new StringBuilder(text.substring(0, i));
+      }
+      if (escaped != null) {
+        escaped.append(replacement != null ? replacement : String.valueOf(c));
+      }
+    }
+    return escaped == null ? text : escaped.toString();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder();
+    for (Map.Entry<String, Family> family : families.entrySet()) {
+      text.append("# HELP ").append(family.getKey()).append(' ').append(escape(family.getValue().help, false)).append('\n');
+      text.append("# TYPE ").append(family.getKey()).append(' ').append(family.getValue().type).append('\n');
+      text.append(family.getValue().samples);
+    }
+    return text.toString();
+  }
+
+}
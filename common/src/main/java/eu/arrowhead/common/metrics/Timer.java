@@ -0,0 +1,38 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogram of durations in seconds, with buckets from 1 ms to 10 s. Created and registered by {@link Metrics#timer(String, String, String...)}.
+ * <p>
+ * Usage: <tt>long start = System.nanoTime(); ... timer.recordSince(start);</tt>
+ */
+public class Timer extends Histogram {
+
+  static final double[] DEFAULT_BOUNDS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+  Timer(String[] labels) {
+    super(DEFAULT_BOUNDS, labels);
+  }
+
+  public void record(long duration, TimeUnit unit) {
+    observe(unit.toNanos(duration) / 1e9);
+  }
+
+  /**
+   * Records the time elapsed since the given System.nanoTime() value.
+   */
+  public void recordSince(long startNanos) {
+    observe((System.nanoTime() - startNanos) / 1e9);
+  }
+
+}
@@ -0,0 +1,36 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.misc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batched DatabaseManager write operation (saveAll, mergeAll, deleteAll). Elements violating a database constraint (for example a
+ * unique key) are listed as failed, while the rest of the batch is still written to the database.
+ */
+public class BatchResult<T> {
+
+  private final List<T> succeeded = new ArrayList<>();
+  private final List<T> failed = new ArrayList<>();
+
+  public List<T> getSucceeded() {
+    return succeeded;
+  }
+
+  public List<T> getFailed() {
+    return failed;
+  }
+
+  public boolean hasFailures() {
+    return !failed.isEmpty();
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.misc;
+
+import java.time.Instant;
+
+/**
+ * Circuit breaker of the requests sent to one host (see Utility.sendRequest). After the configured number of consecutive failed requests (no response
+ * at all) the breaker opens, and requests to the host fail fast, without waiting for the timeouts. When the open time elapses, one trial request is
+ * let through (half open state): its success closes the breaker, its failure opens it again. Thread-safe.
+ */
+public class CircuitBreaker {
+
+  public enum State {CLOSED, OPEN, HALF_OPEN}
+
+  private final String host;
+  private final int failureThreshold;
+  private final long openTimeMillis;
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private long trialStartedAt;
+  private long rejectedCount;
+
+  public CircuitBreaker(String host, int failureThreshold, long openTimeMillis) {
+    this.host = host;
+    this.failureThreshold = failureThreshold;
+    this.openTimeMillis = openTimeMillis;
+  }
+
+  /**
+   * Returns true if a request can be sent to the host now. In open state it returns false, except for the first call after the open time elapsed,
+   * which becomes the trial request of the half open state. A trial request without any recorded result (e.g. the sending thread was interrupted)
+   * is replaced by a new one after the open time, so the breaker can not stay half open forever.
+   */
+  public synchronized boolean allowRequest() {
+    if (state == State.CLOSED) {
+      return true;
+    }
+    long now = System.currentTimeMillis();
+    if (now - (state == State.OPEN ? openedAt : trialStartedAt) >= openTimeMillis) {
+      state = State.HALF_OPEN;
+      trialStartedAt = now;
+      return true;
+    }
+    rejectedCount++;
+    return false;
+  }
+
+  public synchronized void recordSuccess() {
+    state = State.CLOSED;
+    consecutiveFailures = 0;
+  }
+
+  public synchronized void recordFailure() {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = System.currentTimeMillis();
+    }
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  public synchronized int getConsecutiveFailures() {
+    return consecutiveFailures;
+  }
+
+  public synchronized long getRejectedCount() {
+    return rejectedCount;
+  }
+
+  //Time of the last opening, null if the breaker was never opened
+  public synchronized Instant getOpenedAt() {
+    return openedAt == 0 ? null : Instant.ofEpochMilli(openedAt);
+  }
+
+}
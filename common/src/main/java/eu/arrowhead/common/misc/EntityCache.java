@@ -0,0 +1,146 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.misc;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, time-limited in-memory cache for entities looked up by their natural (unique) key, like the system name of an {@link
+ * eu.arrowhead.common.database.ArrowheadSystem}. Entries are evicted in least recently used order when the cache is full, and are considered expired
+ * after the configured time to live. Thread-safe.
+ */
+public class EntityCache {
+
+  private final long ttlMillis;
+  private final Map<Key, CacheEntry> entries;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private long generation;
+
+  public EntityCache(int maxSize, long ttlMillis) {
+    this.ttlMillis = ttlMillis;
+    this.entries = new LinkedHashMap<Key, CacheEntry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, CacheEntry> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached entity for the given restriction map, or null if it is not cached (or the cached value expired).
+   */
+  public synchronized Object get(Class<?> type, Map<String, Object> restrictionMap) {
+    Key key = new Key(type, restrictionMap);
+    CacheEntry entry = entries.get(key);
+    if (entry == null) {
+      missCount.incrementAndGet();
+      return null;
+    }
+    if (System.currentTimeMillis() > entry.expiresAt) {
+      entries.remove(key);
+      missCount.incrementAndGet();
+      return null;
+    }
+    hitCount.incrementAndGet();
+    return entry.value;
+  }
+
+  /**
+   * Caches the entity, unless the cache was invalidated since the given generation was read. This prevents a lookup that raced with a write
+   * operation from putting the already outdated entity back into the cache.
+   */
+  public synchronized void put(Class<?> type, Map<String, Object> restrictionMap, Object value, long expectedGeneration) {
+    if (expectedGeneration != generation) {
+      return;
+    }
+    entries.put(new Key(type, restrictionMap), new CacheEntry(value, System.currentTimeMillis() + ttlMillis));
+  }
+
+  /**
+   * Removes every cached entity of the given type. Used after write operations, since the natural key of an entity can change during a merge.
+   */
+  public synchronized void invalidate(Class<?> type) {
+    generation++;
+    Iterator<Key> it = entries.keySet().iterator();
+    while (it.hasNext()) {
+      if (it.next().type.equals(type)) {
+        it.remove();
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    generation++;
+    entries.clear();
+  }
+
+  public synchronized long getGeneration() {
+    return generation;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  private static final class Key {
+
+    private final Class<?> type;
+    private final Map<String, Object> restrictions;
+
+    Key(Class<?> type, Map<String, Object> restrictionMap) {
+      this.type = type;
+      this.restrictions = Collections.unmodifiableMap(new HashMap<>(restrictionMap));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      Key that = (Key) o;
+      return type.equals(that.type) && restrictions.equals(that.restrictions);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * type.hashCode() + restrictions.hashCode();
+    }
+  }
+
+  private static final class CacheEntry {
+
+    private final Object value;
+    private final long expiresAt;
+
+    CacheEntry(Object value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+}
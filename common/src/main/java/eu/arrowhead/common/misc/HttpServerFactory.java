@@ -0,0 +1,218 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.misc;
+
+import eu.arrowhead.common.messages.WorkerPoolStats;
+import eu.arrowhead.common.metrics.Metrics;
+import eu.arrowhead.common.metrics.MetricsWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import org.apache.log4j.Logger;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.http2.Http2AddOn;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
+import org.glassfish.grizzly.threadpool.AbstractThreadPool;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.glassfish.grizzly.threadpool.ThreadPoolProbe;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.message.DeflateEncoder;
+import org.glassfish.jersey.message.GZipEncoder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.filter.EncodingFilter;
+
+/**
+ * Creates the Grizzly HTTP servers of the core systems, with the transport and worker thread pool configured from the config file:
+ * <ul>
+ * <li><tt>server_selector_threads</tt>: I/O (selector) threads, 0 keeps the Grizzly default (number of processors)</li>
+ * <li><tt>server_worker_core_threads</tt>, <tt>server_worker_max_threads</tt>: worker threads running the Jersey resources</li>
+ * <li><tt>server_worker_queue_limit</tt>: requests waiting for a free worker thread, the requests over the limit are rejected (-1 is
+ * unbounded)</li>
+ * <li><tt>server_keep_alive_timeout</tt>, <tt>server_keep_alive_max_requests</tt>: idle timeout of kept alive connections in seconds, and the
+ * number of requests served on one connection (-1 is unlimited)</li>
+ * <li><tt>server_max_header_size</tt>, <tt>server_max_post_size</tt>: in bytes (the post size is enforced by the PayloadSizeFilter)</li>
+ * <li><tt>server_virtual_threads</tt>: the worker threads are virtual threads, if the JVM supports them (Java 21+)</li>
+ * <li><tt>server_http2</tt>: HTTP/2 is also accepted, h2c (with prior knowledge) on insecure servers, and h2 on secure servers if TLS ALPN is
+ * available in the JVM (the grizzly-npn-bootstrap jar on the boot classpath), otherwise the secure servers stay on HTTP/1.1</li>
+ * <li><tt>server_compression</tt>: the responses are gzip or deflate encoded if the client accepts it (Accept-Encoding), and encoded request
+ * payloads are decoded</li>
+ * </ul>
+ * The usage of the worker pools is returned by {@link #getWorkerPoolStats()}, and exported by the metrics endpoint.
+ */
+public final class HttpServerFactory {
+
+  public static final String MAX_POST_SIZE_PROPERTY = "server_max_post_size";
+  public static final String COMPRESSION_PROPERTY = "server_compression";
+
+  //Worker pool usage by the base URI of the servers
+  private static final Map<String, WorkerPoolProbe> workerPools = new ConcurrentHashMap<>();
+  private static final Logger log = Logger.getLogger(HttpServerFactory.class.getName());
+  //The HTTP/2 add-on logs every frame at INFO level through java.util.logging (strong reference, so the level setting is not garbage collected)
+  private static final java.util.logging.Logger http2Log = java.util.logging.Logger.getLogger("org.glassfish.grizzly.http2");
+
+  static {
+    Metrics.addCollector("worker pools", HttpServerFactory::collectWorkerPoolStats);
+  }
+
+  private HttpServerFactory() throws AssertionError {
+    throw new AssertionError("Arrowhead Common:HttpServerFactory is a non-instantiable class");
+  }
+
+  /**
+   * Creates a configured, but not yet started server.
+   *
+   * @param sslConfigurator the SSL configuration of a secure server, null for an insecure server
+   */
+  public static HttpServer createServer(URI uri, ResourceConfig config, SSLEngineConfigurator sslConfigurator, TypeSafeProperties props) {
+    config.property(MAX_POST_SIZE_PROPERTY, (long) props.getIntProperty(MAX_POST_SIZE_PROPERTY, 10485760));
+    //The encoders also decode the gzip/deflate encoded request payloads
+    if (props.getBooleanProperty(COMPRESSION_PROPERTY, true)) {
+      EncodingFilter.enableFor(config, GZipEncoder.class, DeflateEncoder.class);
+    }
+    HttpServer server = sslConfigurator == null ? GrizzlyHttpServerFactory.createHttpServer(uri, config, false)
+                                                : GrizzlyHttpServerFactory.createHttpServer(uri, config, true, sslConfigurator, false);
+    server.getServerConfiguration().setAllowPayloadForUndefinedHttpMethods(true);
+
+    for (NetworkListener listener : server.getListeners()) {
+      listener.setMaxHttpHeaderSize(props.getIntProperty("server_max_header_size", 8192));
+      listener.getKeepAlive().setIdleTimeoutInSeconds(props.getIntProperty("server_keep_alive_timeout", 30));
+      listener.getKeepAlive().setMaxRequestsCount(props.getIntProperty("server_keep_alive_max_requests", 256));
+      if (props.getBooleanProperty("server_http2", false)) {
+        http2Log.setLevel(Level.WARNING);
+        listener.registerAddOn(new Http2AddOn());
+      }
+
+      TCPNIOTransport transport = listener.getTransport();
+      int selectorThreads = props.getIntProperty("server_selector_threads", 0);
+      if (selectorThreads > 0) {
+        transport.setSelectorRunnersCount(selectorThreads);
+      }
+      ThreadPoolConfig workerConfig = ThreadPoolConfig.defaultConfig().setPoolName("worker-" + uri.getPort())
+                                                      .setCorePoolSize(props.getIntProperty("server_worker_core_threads", 8))
+                                                      .setMaxPoolSize(props.getIntProperty("server_worker_max_threads", 64))
+                                                      .setQueueLimit(props.getIntProperty("server_worker_queue_limit", 1000));
+      boolean virtualThreads = props.getBooleanProperty("server_virtual_threads", false);
+      if (virtualThreads) {
+        ThreadFactory virtualThreadFactory = getVirtualThreadFactory();
+        if (virtualThreadFactory != null) {
+          workerConfig.setThreadFactory(virtualThreadFactory);
+        } else {
+          virtualThreads = false;
+          log.warn("Virtual threads are not supported by this JVM, platform worker threads are used at " + uri);
+        }
+      }
+      WorkerPoolProbe probe = new WorkerPoolProbe(workerConfig, virtualThreads);
+      workerConfig.getInitialMonitoringConfig().addProbes(probe);
+      transport.setWorkerThreadPoolConfig(workerConfig);
+      workerPools.put(uri.toString(), probe);
+    }
+    return server;
+  }
+
+  public static List<WorkerPoolStats> getWorkerPoolStats() {
+    List<WorkerPoolStats> statsList = new ArrayList<>();
+    for (Map.Entry<String, WorkerPoolProbe> pool : new TreeMap<>(workerPools).entrySet()) {
+      WorkerPoolProbe probe = pool.getValue();
+      statsList.add(new WorkerPoolStats(pool.getKey(), probe.virtualThreads, probe.config.getCorePoolSize(), probe.config.getMaxPoolSize(),
+                                        probe.config.getQueueLimit(), probe.threads.get(), probe.active.get(), probe.queued.get(),
+                                        probe.completed.get(), probe.rejected.get()));
+    }
+    return statsList;
+  }
+
+  private static void collectWorkerPoolStats(MetricsWriter writer) {
+    for (WorkerPoolStats pool : getWorkerPoolStats()) {
+      writer.gauge("arrowhead_http_server_worker_threads", "Worker threads of the server", pool.getThreads(), "server", pool.getName());
+      writer.gauge("arrowhead_http_server_worker_threads_active", "Worker threads processing a request", pool.getActiveThreads(), "server",
+                   pool.getName());
+      writer.gauge("arrowhead_http_server_worker_threads_max", "Maximum size of the worker pool", pool.getMaxPoolSize(), "server", pool.getName());
+      writer.gauge("arrowhead_http_server_worker_queued", "Requests waiting for a worker thread", pool.getQueuedTasks(), "server", pool.getName());
+      writer.counter("arrowhead_http_server_worker_completed_total", "Requests completed by the worker pool", pool.getCompletedTasks(), "server",
+                     pool.getName());
+      writer.counter("arrowhead_http_server_worker_rejected_total", "Requests rejected by the saturated worker pool", pool.getRejectedTasks(),
+                     "server", pool.getName());
+    }
+  }
+
+  //Thread.ofVirtual().factory() through reflection, since the code is compiled for Java 8
+  private static ThreadFactory getVirtualThreadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  //Every task of the Grizzly worker pools goes through the task queue, so the queue events count the waiting and running requests too
+  private static final class WorkerPoolProbe extends ThreadPoolProbe.Adapter {
+
+    private final ThreadPoolConfig config;
+    private final boolean virtualThreads;
+    private final AtomicInteger threads = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private WorkerPoolProbe(ThreadPoolConfig config, boolean virtualThreads) {
+      this.config = config;
+      this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void onThreadAllocateEvent(AbstractThreadPool threadPool, Thread thread) {
+      threads.incrementAndGet();
+    }
+
+    @Override
+    public void onThreadReleaseEvent(AbstractThreadPool threadPool, Thread thread) {
+      threads.decrementAndGet();
+    }
+
+    @Override
+    public void onTaskQueueEvent(AbstractThreadPool threadPool, Runnable task) {
+      queued.incrementAndGet();
+    }
+
+    @Override
+    public void onTaskDequeueEvent(AbstractThreadPool threadPool, Runnable task) {
+      queued.decrementAndGet();
+      active.incrementAndGet();
+    }
+
+    @Override
+    public void onTaskCancelEvent(AbstractThreadPool threadPool, Runnable task) {
+      queued.decrementAndGet();
+    }
+
+    @Override
+    public void onTaskCompleteEvent(AbstractThreadPool threadPool, Runnable task) {
+      active.decrementAndGet();
+      completed.incrementAndGet();
+    }
+
+    @Override
+    public void onTaskQueueOverflowEvent(AbstractThreadPool threadPool) {
+      rejected.incrementAndGet();
+      log.warn("Worker pool " + config.getPoolName() + " is saturated, a request was rejected");
+    }
+  }
+
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.misc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.apache.log4j.Logger;
+import org.glassfish.grizzly.http.server.HttpServer;
+
+/**
+ * Readiness and graceful shutdown state of the core systems running in this JVM.
+ * <ul>
+ * <li>A server is ready (see the <tt>mgmt/server/ready</tt> endpoint) after its core system started, and not ready anymore as soon as the shutdown
+ * begins, so load balancers and probes stop sending new requests before the server stops.</li>
+ * <li>The asynchronous work outliving the requests (e.g. event propagation) is tracked, and the shutdown waits for it up to its deadline, like for
+ * the drain conditions (e.g. no open gateway sessions).</li>
+ * <li>The resources shared by the core systems of the JVM (e.g. the database connection pool) are released by the last stopped core system.</li>
+ * </ul>
+ */
+public final class Lifecycle {
+
+  private static final Set<Integer> readyPorts = ConcurrentHashMap.newKeySet();
+  private static final Set<CompletableFuture<?>> backgroundWork = ConcurrentHashMap.newKeySet();
+  private static final Map<String, BooleanSupplier> drainConditions = new ConcurrentHashMap<>();
+  private static final AtomicInteger runningSystems = new AtomicInteger();
+  //Polling interval of the drain conditions in milliseconds
+  private static final long DRAIN_POLL_INTERVAL = 100;
+  private static final Logger log = Logger.getLogger(Lifecycle.class.getName());
+
+  private Lifecycle() throws AssertionError {
+    throw new AssertionError("Arrowhead Common:Lifecycle is a non-instantiable class");
+  }
+
+  public static void setReady(int port, boolean ready) {
+    if (ready) {
+      readyPorts.add(port);
+    } else {
+      readyPorts.remove(port);
+    }
+  }
+
+  public static boolean isReady(int port) {
+    return readyPorts.contains(port);
+  }
+
+  /**
+   * Registers asynchronous work, which the shutdown waits for.
+   *
+   * @return the given future
+   */
+  public static <T> CompletableFuture<T> track(CompletableFuture<T> work) {
+    backgroundWork.add(work);
+    work.whenComplete((result, throwable) -> backgroundWork.remove(work));
+    return work;
+  }
+
+  /**
+   * Registers a condition, which the shutdown waits for (e.g. until every session of the core system is closed).
+   */
+  public static void addDrainCondition(String name, BooleanSupplier drained) {
+    drainConditions.put(name, drained);
+  }
+
+  public static void systemStarted() {
+    runningSystems.incrementAndGet();
+  }
+
+  /**
+   * @return true if every core system of the JVM is stopped, so the shared resources can be released
+   */
+  public static boolean systemStopped() {
+    return runningSystems.decrementAndGet() <= 0;
+  }
+
+  /**
+   * Stops the server gracefully: new connections are refused, and the requests in progress are completed. The server is stopped forcibly at the
+   * deadline.
+   *
+   * @param deadline in System.currentTimeMillis() time
+   */
+  public static void stopServer(HttpServer server, long deadline) {
+    try {
+      server.shutdown(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS).get();
+    } catch (ExecutionException e) {
+      log.warn("Graceful server shutdown failed: " + e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    server.shutdownNow();
+  }
+
+  /**
+   * Waits for the tracked asynchronous work and the drain conditions until the deadline.
+   *
+   * @param deadline in System.currentTimeMillis() time
+   *
+   * @return true if everything completed before the deadline
+   */
+  public static boolean awaitBackgroundWork(long deadline) {
+    List<CompletableFuture<?>> pending = new ArrayList<>(backgroundWork);
+    try {
+      CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                       .get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      //The failures are handled by the work itself, only the completion matters here
+    } catch (TimeoutException e) {
+      log.warn(backgroundWork.size() + " asynchronous tasks were still running at the shutdown deadline");
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+
+    for (Map.Entry<String, BooleanSupplier> condition : drainConditions.entrySet()) {
+      while (!condition.getValue().getAsBoolean()) {
+        if (System.currentTimeMillis() >= deadline) {
+          log.warn("Shutdown deadline reached while waiting for: " + condition.getKey());
+          return false;
+        }
+        try {
+          Thread.sleep(DRAIN_POLL_INTERVAL);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+}
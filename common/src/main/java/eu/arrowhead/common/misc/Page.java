@@ -0,0 +1,52 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.misc;
+
+import java.util.List;
+
+/**
+ * One page of a keyset paginated DatabaseManager query. The next page can be requested with the <i>nextKey</i> as the <i>after</i> parameter, which
+ * is null on the last page.
+ */
+public class Page<T> {
+
+  private final List<T> items;
+  private final long totalCount;
+  private final int limit;
+  private final Object nextKey;
+
+  public Page(List<T> items, long totalCount, int limit, Object nextKey) {
+    this.items = items;
+    this.totalCount = totalCount;
+    this.limit = limit;
+    this.nextKey = nextKey;
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public Object getNextKey() {
+    return nextKey;
+  }
+
+  public boolean hasNext() {
+    return nextKey != null;
+  }
+
+}
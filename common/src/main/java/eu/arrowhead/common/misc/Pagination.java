@@ -0,0 +1,115 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.misc;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import eu.arrowhead.common.DatabaseManager;
+import eu.arrowhead.common.Utility;
+import eu.arrowhead.common.json.JsonCodec;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * Shared logic of the paginated management list endpoints. The endpoints accept the <i>after</i> (key of the last entity of the previous page) and
+ * <i>limit</i> query parameters, and return the total number of matching entities in the <i>X-Total-Count</i> header, and the link of the next page
+ * in the <i>Link</i> header. The <i>stream=true</i> query parameter returns every matching entity instead, streamed from the database (and gzip
+ * compressed, if the client accepts it: by the server response encoding, or here if that is disabled).
+ */
+public final class Pagination {
+
+  public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+  private static final TypeSafeProperties prop = Utility.getProp();
+  private static final int defaultPageSize = prop.getIntProperty("mgmt_page_size", 100);
+  private static final int maxPageSize = prop.getIntProperty("mgmt_max_page_size", 1000);
+  //The server encodes every response if compression is enabled, so the stream is only compressed here without it
+  private static final boolean serverCompression = prop.getBooleanProperty(HttpServerFactory.COMPRESSION_PROPERTY, true);
+
+  private Pagination() throws AssertionError {
+    throw new AssertionError("Arrowhead Common:Pagination is a non-instantiable class");
+  }
+
+  /**
+   * Returns the page size to use for the requested limit: the configured default if it is missing, capped at the configured maximum.
+   */
+  public static int getLimit(Integer limit) {
+    if (limit == null || limit <= 0) {
+      return defaultPageSize;
+    }
+    return Math.min(limit, maxPageSize);
+  }
+
+  public static Response toResponse(Page<?> page, UriInfo uriInfo) {
+    return toResponse(page, page.getItems(), uriInfo);
+  }
+
+  /**
+   * Builds the response of a page, with the given entity as the payload (for endpoints wrapping the list into a message class).
+   */
+  public static Response toResponse(Page<?> page, Object entity, UriInfo uriInfo) {
+    Response.ResponseBuilder builder = Response.ok(entity).header(TOTAL_COUNT_HEADER, page.getTotalCount());
+    if (page.hasNext()) {
+      builder.link(uriInfo.getRequestUriBuilder().replaceQueryParam("after", page.getNextKey()).replaceQueryParam("limit", page.getLimit()).build(),
+                   "next");
+    }
+    return builder.build();
+  }
+
+  /**
+   * Streams every entity matching the restrictions as a JSON array, without loading the whole table into memory.
+   *
+   * @param wrapperField if not null, the array is wrapped into a JSON object as this field (for endpoints returning a message class)
+   * @param converter applied to each entity before serialization, can be null
+   * @param orderProperties the entities are streamed in ascending order of these properties (in database order without them)
+   */
+  public static <T> Response streamAll(Class<T> queryClass, Map<String, Object> restrictionMap, String wrapperField, Consumer<T> converter,
+                                       HttpHeaders headers, String... orderProperties) {
+    String acceptEncoding = headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+    boolean gzip = !serverCompression && acceptEncoding != null && acceptEncoding.contains("gzip");
+    StreamingOutput output = outputStream -> {
+      OutputStream out = gzip ? new GZIPOutputStream(outputStream) : outputStream;
+      ObjectWriter writer = JsonCodec.getStreamingWriter();
+      try (JsonGenerator generator = writer.getFactory().createGenerator(out);
+          ScrollableIterator<T> entities = DatabaseManager.getInstance().stream(queryClass, restrictionMap, orderProperties)) {
+        if (wrapperField != null) {
+          generator.writeStartObject();
+          generator.writeFieldName(wrapperField);
+        }
+        generator.writeStartArray();
+        while (entities.hasNext()) {
+          T entity = entities.next();
+          if (converter != null) {
+            converter.accept(entity);
+          }
+          writer.writeValue(generator, entity);
+        }
+        generator.writeEndArray();
+        if (wrapperField != null) {
+          generator.writeEndObject();
+        }
+      }
+    };
+
+    Response.ResponseBuilder builder = Response.ok(output, MediaType.APPLICATION_JSON);
+    if (gzip) {
+      builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return builder.build();
+  }
+
+}
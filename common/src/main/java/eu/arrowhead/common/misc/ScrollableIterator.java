@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.misc;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+/**
+ * Lazily fetched iterator over the rows of a DatabaseManager stream query. Rows are read from the database cursor in fetch size chunks, so the whole
+ * result set is never held in memory. The iterator holds a database connection until it is closed, so it must always be used in a
+ * try-with-resources statement.
+ */
+public class ScrollableIterator<T> implements Iterator<T>, AutoCloseable {
+
+  private final Session session;
+  private final Transaction transaction;
+  private final ScrollableResults results;
+  private final int fetchSize;
+  private final boolean clearSession;
+  private Boolean hasNext;
+  private int rowCount;
+
+  /**
+   * @param session the session running the query
+   * @param transaction the transaction to commit and the session to close on close, or null if the session belongs to a unit of work
+   * @param results the scrolled query results
+   * @param fetchSize number of rows fetched from the database at once
+   * @param clearSession if true, the session is cleared after every fetch size rows, to release the already returned entities
+   */
+  public ScrollableIterator(Session session, Transaction transaction, ScrollableResults results, int fetchSize, boolean clearSession) {
+    this.session = session;
+    this.transaction = transaction;
+    this.results = results;
+    this.fetchSize = fetchSize;
+    this.clearSession = clearSession && transaction != null;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (hasNext == null) {
+      //Releasing the already returned entities before the next chunk is fetched
+      if (clearSession && rowCount > 0 && rowCount % fetchSize == 0) {
+        session.clear();
+      }
+      hasNext = results.next();
+    }
+    return hasNext;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    hasNext = null;
+    rowCount++;
+    return (T) results.get(0);
+  }
+
+  @Override
+  public void close() {
+    results.close();
+    if (transaction != null) {
+      try {
+        transaction.commit();
+      } finally {
+        session.close();
+      }
+    }
+  }
+
+}
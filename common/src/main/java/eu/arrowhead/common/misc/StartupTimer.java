@@ -0,0 +1,70 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.misc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
+
+/**
+ * Measures the startup phases of a core system, and reports the time to ready with the duration of each phase. Phases running in parallel with the
+ * main startup thread are measured by the caller, and recorded with {@link #record(String, long)}.
+ */
+public class StartupTimer {
+
+  private final String system;
+  private final long start = System.nanoTime();
+  private final Map<String, Long> phases = new LinkedHashMap<>();
+
+  private static final Logger log = Logger.getLogger(StartupTimer.class.getName());
+
+  public StartupTimer(String system) {
+    this.system = system;
+  }
+
+  /**
+   * Returns the current time, to be passed to {@link #end(String, long)} at the end of the phase.
+   */
+  public long begin() {
+    return System.nanoTime();
+  }
+
+  public void end(String phase, long begin) {
+    record(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+  }
+
+  public synchronized void record(String phase, long millis) {
+    phases.put(phase, millis);
+  }
+
+  public long getElapsedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  /**
+   * Logs the time since the creation of the timer, and the phases recorded so far.
+   */
+  public synchronized void report(String event) {
+    StringBuilder message = new StringBuilder(system).append(" ").append(event).append(" in ").append(getElapsedMillis()).append(" ms");
+    if (!phases.isEmpty()) {
+      message.append(" (");
+      String separator = "";
+      for (Map.Entry<String, Long> phase : phases.entrySet()) {
+        message.append(separator).append(phase.getKey()).append(": ").append(phase.getValue()).append(" ms");
+        separator = ", ";
+      }
+      message.append(")");
+    }
+    log.info(message);
+    System.out.println(message);
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends the spans to a local file, one JSON object per line: trace, span and parent span ids, system, name, kind, start time and duration in
+ * microseconds, error flag, attributes and events.
+ */
+class FileSpanExporter implements SpanExporter {
+
+  private final String path;
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  FileSpanExporter(String path) {
+    this.path = path;
+  }
+
+  @Override
+  public void export(List<Span> spans) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      for (Span span : spans) {
+        writer.write(mapper.writeValueAsString(toMap(span)));
+        writer.write('\n');
+      }
+    }
+  }
+
+  private static Map<String, Object> toMap(Span span) {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("traceId", span.getTraceId());
+    map.put("spanId", span.getSpanId());
+    map.put("parentSpanId", span.getParentSpanId());
+    map.put("system", span.getSystem());
+    map.put("name", span.getName());
+    map.put("kind", span.getKind());
+    map.put("startMicros", span.getStartEpochNanos() / 1000);
+    map.put("durationMicros", span.getDurationNanos() / 1000);
+    map.put("error", span.isError());
+    map.put("attributes", span.getAttributes());
+    if (!span.getEvents().isEmpty()) {
+      map.put("events", span.getEvents());
+    }
+    return map;
+  }
+
+}
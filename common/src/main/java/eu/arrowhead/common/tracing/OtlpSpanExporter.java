@@ -0,0 +1,122 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends the spans to an OpenTelemetry collector (or any OTLP compatible backend) in the OTLP/HTTP JSON encoding, one resource per core system. The
+ * request is sent with HttpURLConnection, and not through Utility.sendRequest, so the export itself is not traced.
+ */
+class OtlpSpanExporter implements SpanExporter {
+
+  private static final int TIMEOUT = 10000;
+
+  private final URL endpoint;
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  OtlpSpanExporter(String endpoint) {
+    try {
+      this.endpoint = new URL(endpoint);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid tracing_otlp_endpoint: " + endpoint, e);
+    }
+  }
+
+  @Override
+  public void export(List<Span> spans) throws IOException {
+    byte[] payload = mapper.writeValueAsBytes(toRequest(spans));
+    HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+    try {
+      connection.setConnectTimeout(TIMEOUT);
+      connection.setReadTimeout(TIMEOUT);
+      connection.setRequestMethod("POST");
+      connection.setDoOutput(true);
+      connection.setRequestProperty("Content-Type", "application/json");
+      try (OutputStream out = connection.getOutputStream()) {
+        out.write(payload);
+      }
+      int status = connection.getResponseCode();
+      if (status / 100 != 2) {
+        throw new IOException("OTLP collector at " + endpoint + " responded with " + status);
+      }
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  private static Map<String, Object> toRequest(List<Span> spans) {
+    Map<String, List<Map<String, Object>>> spansBySystem = new LinkedHashMap<>();
+    for (Span span : spans) {
+      String system = span.getSystem() == null ? "arrowhead" : span.getSystem().toLowerCase();
+      spansBySystem.computeIfAbsent(system, key -> new ArrayList<>()).add(toOtlpSpan(span));
+    }
+
+    List<Map<String, Object>> resourceSpans = new ArrayList<>();
+    for (Map.Entry<String, List<Map<String, Object>>> system : spansBySystem.entrySet()) {
+      Map<String, Object> resource = Collections.singletonMap("attributes", Collections.singletonList(attribute("service.name", system.getKey())));
+      Map<String, Object> scopeSpans = new LinkedHashMap<>();
+      scopeSpans.put("scope", Collections.singletonMap("name", "eu.arrowhead.common.tracing"));
+      scopeSpans.put("spans", system.getValue());
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("resource", resource);
+      entry.put("scopeSpans", Collections.singletonList(scopeSpans));
+      resourceSpans.add(entry);
+    }
+    return Collections.singletonMap("resourceSpans", resourceSpans);
+  }
+
+  private static Map<String, Object> toOtlpSpan(Span span) {
+    Map<String, Object> otlpSpan = new LinkedHashMap<>();
+    otlpSpan.put("traceId", span.getTraceId());
+    otlpSpan.put("spanId", span.getSpanId());
+    if (span.getParentSpanId() != null) {
+      otlpSpan.put("parentSpanId", span.getParentSpanId());
+    }
+    otlpSpan.put("name", span.getName());
+    //SPAN_KIND_INTERNAL = 1, SPAN_KIND_SERVER = 2, SPAN_KIND_CLIENT = 3
+    otlpSpan.put("kind", span.getKind() == Span.Kind.SERVER ? 2 : span.getKind() == Span.Kind.CLIENT ? 3 : 1);
+    otlpSpan.put("startTimeUnixNano", String.valueOf(span.getStartEpochNanos()));
+    otlpSpan.put("endTimeUnixNano", String.valueOf(span.getStartEpochNanos() + span.getDurationNanos()));
+    List<Map<String, Object>> attributes = new ArrayList<>();
+    for (Map.Entry<String, String> attribute : span.getAttributes().entrySet()) {
+      attributes.add(attribute(attribute.getKey(), attribute.getValue()));
+    }
+    otlpSpan.put("attributes", attributes);
+    List<Map<String, Object>> events = new ArrayList<>();
+    for (Span.Event event : span.getEvents()) {
+      Map<String, Object> otlpEvent = new LinkedHashMap<>();
+      otlpEvent.put("timeUnixNano", String.valueOf(event.getEpochNanos()));
+      otlpEvent.put("name", event.getName());
+      events.add(otlpEvent);
+    }
+    otlpSpan.put("events", events);
+    //STATUS_CODE_UNSET = 0, STATUS_CODE_ERROR = 2
+    otlpSpan.put("status", Collections.singletonMap("code", span.isError() ? 2 : 0));
+    return otlpSpan;
+  }
+
+  private static Map<String, Object> attribute(String key, String value) {
+    Map<String, Object> attribute = new LinkedHashMap<>();
+    attribute.put("key", key);
+    attribute.put("value", Collections.singletonMap("stringValue", value));
+    return attribute;
+  }
+
+}
@@ -0,0 +1,180 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One timed operation of a trace: a request served by a core system, a request sent to another system, or a database operation. Spans are created
+ * by the {@link Tracer}, and exported when they end. The ids follow the W3C Trace Context format (32 and 16 hex digits).
+ */
+public class Span {
+
+  public enum Kind {SERVER, CLIENT, INTERNAL}
+
+  //Returned by the Tracer when tracing is disabled, every method is a no-op
+  static final Span NOOP = new Span(null, null, null, null, null, Kind.INTERNAL);
+
+  private final String traceId;
+  private final String spanId;
+  private final String parentSpanId;
+  private final String system;
+  private final Kind kind;
+  private final long startEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+  private final long start = System.nanoTime();
+  private String name;
+  private long durationNanos = -1;
+  private boolean error;
+  private final Map<String, String> attributes = new LinkedHashMap<>();
+  private List<Event> events;
+
+  public static class Event {
+
+    private final long epochNanos;
+    private final String name;
+
+    Event(long epochNanos, String name) {
+      this.epochNanos = epochNanos;
+      this.name = name;
+    }
+
+    public long getEpochNanos() {
+      return epochNanos;
+    }
+
+    public String getName() {
+      return name;
+    }
+  }
+
+  Span(String traceId, String spanId, String parentSpanId, String system, String name, Kind kind) {
+    this.traceId = traceId;
+    this.spanId = spanId;
+    this.parentSpanId = parentSpanId;
+    this.system = system;
+    this.name = name;
+    this.kind = kind;
+  }
+
+  public boolean isRecording() {
+    return this != NOOP;
+  }
+
+  public synchronized Span setName(String name) {
+    if (isRecording()) {
+      this.name = name;
+    }
+    return this;
+  }
+
+  public synchronized Span setAttribute(String key, Object value) {
+    if (isRecording() && value != null) {
+      attributes.put(key, value.toString());
+    }
+    return this;
+  }
+
+  //A timestamped message in the span (e.g. a fallback decision), exported with the span
+  public synchronized Span addEvent(String message) {
+    if (isRecording()) {
+      if (events == null) {
+        events = new ArrayList<>();
+      }
+      events.add(new Event(startEpochNanos + System.nanoTime() - start, message));
+    }
+    return this;
+  }
+
+  public synchronized Span setError(Throwable throwable) {
+    if (isRecording()) {
+      error = true;
+      attributes.put("error.message", String.valueOf(throwable.getMessage()));
+      attributes.put("error.type", throwable.getClass().getSimpleName());
+    }
+    return this;
+  }
+
+  public synchronized Span setError(boolean error) {
+    if (isRecording()) {
+      this.error = error;
+    }
+    return this;
+  }
+
+  /**
+   * Ends the span and queues it for the export. Only the first call has an effect.
+   */
+  public void end() {
+    synchronized (this) {
+      if (!isRecording() || durationNanos >= 0) {
+        return;
+      }
+      durationNanos = System.nanoTime() - start;
+    }
+    Tracer.export(this);
+  }
+
+  /**
+   * @return the value of the <tt>traceparent</tt> header propagating this span to the called system, or null if the span is not recorded
+   */
+  public String toTraceparent() {
+    return isRecording() ? "00-" + traceId + "-" + spanId + "-01" : null;
+  }
+
+  public String getTraceId() {
+    return traceId;
+  }
+
+  public String getSpanId() {
+    return spanId;
+  }
+
+  public String getParentSpanId() {
+    return parentSpanId;
+  }
+
+  public String getSystem() {
+    return system;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public synchronized String getName() {
+    return name;
+  }
+
+  public long getStartEpochNanos() {
+    return startEpochNanos;
+  }
+
+  public synchronized long getDurationNanos() {
+    return durationNanos;
+  }
+
+  public synchronized boolean isError() {
+    return error;
+  }
+
+  public synchronized Map<String, String> getAttributes() {
+    return new LinkedHashMap<>(attributes);
+  }
+
+  public synchronized List<Event> getEvents() {
+    return events == null ? Collections.emptyList() : new ArrayList<>(events);
+  }
+
+}
@@ -0,0 +1,20 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.tracing;
+
+import java.io.IOException;
+import java.util.List;
+
+//Destination of the ended spans, called by the export thread of the Tracer with the spans ended since the previous call
+interface SpanExporter {
+
+  void export(List<Span> spans) throws IOException;
+
+}
@@ -0,0 +1,190 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.common.tracing;
+
+import eu.arrowhead.common.Utility;
+import eu.arrowhead.common.metrics.Metrics;
+import eu.arrowhead.common.misc.TypeSafeProperties;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.log4j.Logger;
+
+/**
+ * Distributed tracing of the requests going through the core systems, with W3C Trace Context propagation (<tt>traceparent</tt> header).
+ * <ul>
+ * <li>The TracingFilter starts a server span for every request, continuing the trace of the caller if the request has a traceparent header, and
+ * makes it the current span of the worker thread.</li>
+ * <li>Utility.sendRequest records a client span for every request sent to another system, and forwards the trace in the traceparent header, so
+ * the spans of every hop (e.g. Orchestrator, Service Registry, Authorization, Gatekeepers) belong to the same trace.</li>
+ * <li>The DatabaseManager records a span for every database operation.</li>
+ * </ul>
+ * Ended spans are exported in batches by a background thread, every <tt>tracing_export_interval</tt> milliseconds: appended to the
+ * <tt>tracing_file</tt> as JSON lines, or sent to an OTLP/HTTP collector (<tt>tracing_exporter=otlp</tt>, <tt>tracing_otlp_endpoint</tt>). Tracing
+ * is off by default (<tt>tracing_enabled</tt>), then every span is a no-op, and the traceparent headers are not forwarded.
+ */
+public final class Tracer {
+
+  public static final String TRACEPARENT_HEADER = "traceparent";
+  //ResourceConfig property with the name of the core system, used as the system of the server spans
+  public static final String SYSTEM_PROPERTY = "arrowhead_system";
+
+  //Spans waiting for the export, the spans ended while the queue is full are dropped
+  private static final int MAX_QUEUED_SPANS = 10000;
+  private static final Pattern TRACEPARENT = Pattern.compile("[0-9a-f]{2}-([0-9a-f]{32})-([0-9a-f]{16})-[0-9a-f]{2}");
+  private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+  private static final String INVALID_SPAN_ID = "0000000000000000";
+
+  private static final TypeSafeProperties props = getTracingProps();
+  private static final boolean enabled = props.getBooleanProperty("tracing_enabled", false);
+  private static final ThreadLocal<Span> currentSpan = new ThreadLocal<>();
+  private static final BlockingQueue<Span> queue = new ArrayBlockingQueue<>(MAX_QUEUED_SPANS);
+  private static final LongAdder exportedSpans = new LongAdder();
+  private static final LongAdder droppedSpans = new LongAdder();
+  private static final Logger log = Logger.getLogger(Tracer.class.getName());
+  private static SpanExporter exporter;
+
+  static {
+    if (enabled) {
+      exporter = props.getProperty("tracing_exporter", "file").equalsIgnoreCase("otlp")
+                 ? new OtlpSpanExporter(props.getProperty("tracing_otlp_endpoint", "http://127.0.0.1:4318/v1/traces"))
+                 : new FileSpanExporter(props.getProperty("tracing_file", "spans.json"));
+      ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "span-exporter");
+        thread.setDaemon(true);
+        return thread;
+      });
+      long interval = props.getIntProperty("tracing_export_interval", 5000);
+      scheduler.scheduleWithFixedDelay(Tracer::flush, interval, interval, TimeUnit.MILLISECONDS);
+      Metrics.addCollector("tracing", writer -> {
+        writer.counter("arrowhead_tracing_spans_exported_total", "Spans passed to the exporter", exportedSpans.sum());
+        writer.counter("arrowhead_tracing_spans_dropped_total", "Spans dropped because the export queue was full", droppedSpans.sum());
+      });
+    }
+  }
+
+  private Tracer() throws AssertionError {
+    throw new AssertionError("Arrowhead Common:Tracer is a non-instantiable class");
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return the current span of the calling thread, or a no-op span if there is none
+   */
+  public static Span current() {
+    Span span = currentSpan.get();
+    return span == null ? Span.NOOP : span;
+  }
+
+  /**
+   * Starts a span as the child of the current span of the calling thread (or as the root of a new trace). The new span does not become the current
+   * span, see {@link #activate(Span)}.
+   */
+  public static Span startSpan(String name, Span.Kind kind) {
+    if (!enabled) {
+      return Span.NOOP;
+    }
+    Span parent = currentSpan.get();
+    if (parent == null) {
+      return new Span(newTraceId(), newSpanId(), null, null, name, kind);
+    }
+    return new Span(parent.getTraceId(), newSpanId(), parent.getSpanId(), parent.getSystem(), name, kind);
+  }
+
+  /**
+   * Starts the span of a received request, as the child of the span in the traceparent header, or as the root of a new trace if the header is
+   * missing or invalid.
+   */
+  public static Span startServerSpan(String name, String traceparent, String system) {
+    if (!enabled) {
+      return Span.NOOP;
+    }
+    if (traceparent != null) {
+      Matcher matcher = TRACEPARENT.matcher(traceparent.trim());
+      if (matcher.matches() && !matcher.group(1).equals(INVALID_TRACE_ID) && !matcher.group(2).equals(INVALID_SPAN_ID)) {
+        return new Span(matcher.group(1), newSpanId(), matcher.group(2), system, name, Span.Kind.SERVER);
+      }
+    }
+    return new Span(newTraceId(), newSpanId(), null, system, name, Span.Kind.SERVER);
+  }
+
+  /**
+   * Makes the span the current span of the calling thread, so the spans started on the thread become its children.
+   *
+   * @return the previous current span, to be restored with this method when the span ends (null if there was none)
+   */
+  public static Span activate(Span span) {
+    if (!enabled) {
+      return null;
+    }
+    Span previous = currentSpan.get();
+    if (span == null || !span.isRecording()) {
+      currentSpan.remove();
+    } else {
+      currentSpan.set(span);
+    }
+    return previous;
+  }
+
+  /**
+   * Exports the spans waiting in the queue. Called periodically by the export thread, and by the last stopping core system.
+   */
+  public static synchronized void flush() {
+    if (exporter == null || queue.isEmpty()) {
+      return;
+    }
+    List<Span> spans = new ArrayList<>(queue.size());
+    queue.drainTo(spans);
+    try {
+      exporter.export(spans);
+      exportedSpans.add(spans.size());
+    } catch (IOException | RuntimeException e) {
+      log.warn("Exporting " + spans.size() + " spans failed: " + e.toString());
+    }
+  }
+
+  static void export(Span span) {
+    if (!queue.offer(span)) {
+      droppedSpans.increment();
+    }
+  }
+
+  private static String newTraceId() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return String.format("%016x%016x", random.nextLong(), random.nextLong());
+  }
+
+  private static String newSpanId() {
+    return String.format("%016x", ThreadLocalRandom.current().nextLong());
+  }
+
+  //Tracing is also available outside of the core systems (through Utility), where the config file is optional
+  private static TypeSafeProperties getTracingProps() {
+    try {
+      return Utility.getProp();
+    } catch (ServiceConfigurationError e) {
+      return new TypeSafeProperties();
+    }
+  }
+
+}
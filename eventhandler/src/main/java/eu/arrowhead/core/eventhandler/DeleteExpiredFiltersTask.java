@@ -11,10 +11,14 @@ package eu.arrowhead.core.eventhandler;
 
 import eu.arrowhead.common.DatabaseManager;
 import eu.arrowhead.common.database.EventFilter;
+import eu.arrowhead.common.misc.ScrollableIterator;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.TimerTask;
 import org.apache.log4j.Logger;
+import org.hibernate.criterion.Restrictions;
 
 public class DeleteExpiredFiltersTask extends TimerTask {
 
@@ -23,13 +27,17 @@ public class DeleteExpiredFiltersTask extends TimerTask {
 
   @Override
   public void run() {
-    List<EventFilter> filterList = dm.getAll(EventFilter.class, null);
-    for (EventFilter filter : filterList) {
-      if (filter.getEndDate() != null && filter.getEndDate().isBefore(LocalDateTime.now())) {
-        dm.delete(filter);
-        log.debug(filter.toString() + " removed do to expired end date.");
+    //Only the ids of the expired filters are read, the filters themselves are loaded in chunks for the delete
+    List<Integer> expiredFilterIds = new ArrayList<>();
+    try (ScrollableIterator<Integer> filterIds = dm
+        .stream(EventFilter.class, Integer.class, Collections.singletonMap("id", "id"), Restrictions.lt("endDate", LocalDateTime.now()))) {
+      while (filterIds.hasNext()) {
+        expiredFilterIds.add(filterIds.next());
       }
     }
+    for (EventFilter filter : dm.deleteAllByKeys(EventFilter.class, "id", expiredFilterIds).getSucceeded()) {
+      log.debug(filter.toString() + " removed do to expired end date.");
+    }
   }
 
 }
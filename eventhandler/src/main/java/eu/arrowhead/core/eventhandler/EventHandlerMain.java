@@ -27,8 +27,7 @@ public class EventHandlerMain extends ArrowheadMain {
 
   private EventHandlerMain(String[] args) {
     Set<Class<?>> classes = new HashSet<>(Collections.singleton(EventHandlerResource.class));
-    String[] packages = {"eu.arrowhead.common"};
-    init(CoreSystem.EVENT_HANDLER, args, classes, packages);
+    init(CoreSystem.EVENT_HANDLER, args, classes);
 
     //if removing old filters (based on endDate field) is requested, start the TimerTask that provides it
     if (props.getBooleanProperty("remove_old_filters", false)) {
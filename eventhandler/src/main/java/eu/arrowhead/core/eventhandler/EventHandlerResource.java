@@ -13,6 +13,7 @@ import eu.arrowhead.common.Utility;
 import eu.arrowhead.common.database.EventFilter;
 import eu.arrowhead.common.exception.BadPayloadException;
 import eu.arrowhead.common.messages.PublishEvent;
+import eu.arrowhead.common.misc.Lifecycle;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -65,7 +66,7 @@ public class EventHandlerResource {
 
     /* First the event will be propagated to consumers, then the results will be sent back to the publisher, summarizing which consumers received the
        event without an error. */
-    CompletableFuture.supplyAsync(() -> EventHandlerService.propagateEvent(eventPublished)).thenAccept(map -> {
+    Lifecycle.track(CompletableFuture.supplyAsync(() -> EventHandlerService.propagateEvent(eventPublished)).thenAccept(map -> {
       if (eventPublished.getDeliveryCompleteUri() != null) {
         String callbackUrl = Utility
             .getUri(eventPublished.getSource().getAddress(), eventPublished.getSource().getPort(), eventPublished.getDeliveryCompleteUri(), isSecure,
@@ -77,7 +78,7 @@ public class EventHandlerResource {
           e.printStackTrace();
         }
       }
-    });
+    }));
 
     //return OK while the event publishing happens in async
     return Response.status(Status.OK).build();
@@ -22,7 +22,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Stream;
 import org.apache.log4j.Logger;
 
 final class EventHandlerService {
@@ -30,6 +29,8 @@ final class EventHandlerService {
   private static final Logger log = Logger.getLogger(EventHandlerResource.class.getName());
   private static final DatabaseManager dm = DatabaseManager.getInstance();
   private static final HashMap<String, Object> restrictionMap = new HashMap<>();
+  //The notify URIs of the subscribers are arbitrary, so their timeouts are configured by the http_*_timeout_subscriber keys
+  private static final String SUBSCRIBER_TIMEOUT_TARGET = "subscriber";
 
   private static List<EventFilter> getMatchingEventFilters(PublishEvent pe) {
     restrictionMap.clear();
@@ -46,15 +47,21 @@ final class EventHandlerService {
     return filters;
   }
 
-  private static boolean sendRequest(String url, Event event) {
+  private static CompletableFuture<?> sendRequest(String url, Event event, Map<String, Boolean> result) {
     try {
-      Utility.sendRequest(url, "POST", event);
-    } catch (Exception e) {
+      return Utility.sendRequestAsync(url, "POST", event, null, SUBSCRIBER_TIMEOUT_TARGET).handle((response, error) -> {
+        if (error != null) {
+          log.error("Publishing event to " + url + " failed: " + error.getMessage());
+        }
+        result.put(url, error == null);
+        return response;
+      }).toCompletableFuture();
+    } catch (RuntimeException e) {
       log.error("Publishing event to " + url + " failed.");
       e.printStackTrace();
-      return false;
+      result.put(url, false);
+      return CompletableFuture.completedFuture(null);
     }
-    return true;
   }
 
   static Map<String, Boolean> propagateEvent(PublishEvent eventPublished) {
@@ -75,12 +82,9 @@ final class EventHandlerService {
     }
 
     Map<String, Boolean> result = new ConcurrentHashMap<>();
-    /*Note: ForkJoinPool.commonPool (used by CompletableFuture as default) has a default size equal to one less than the number of cores of your CPU.
-      For faster execution (when there is a large number of urls), use custom thread pool manager:
-      Executor myThreadPool = Executors.newFixedThreadPool(numberOfThreads);*/
-    Stream<CompletableFuture> stream = urls.stream().map(url -> CompletableFuture.supplyAsync(() -> sendRequest(url, eventPublished.getEvent()))
-                                                                                 .thenAcceptAsync(published -> result.put(url, published)));
-    CompletableFuture.allOf(stream.toArray(CompletableFuture[]::new)).join();
+    //The requests are sent in parallel on the bounded async executor of the HTTP client, so one slow subscriber does not delay the others
+    CompletableFuture<?>[] requests = urls.stream().map(url -> sendRequest(url, eventPublished.getEvent(), result)).toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(requests).join();
     log.info("Event published to " + urls.size() + " subscribers.");
     return result;
   }
@@ -14,6 +14,8 @@ import eu.arrowhead.common.database.ArrowheadCloud;
 import eu.arrowhead.common.database.Broker;
 import eu.arrowhead.common.database.NeighborCloud;
 import eu.arrowhead.common.exception.DataNotFoundException;
+import eu.arrowhead.common.misc.Page;
+import eu.arrowhead.common.misc.Pagination;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -27,9 +29,13 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
 import org.apache.log4j.Logger;
 
 @Path("gatekeeper/mgmt")
@@ -48,21 +54,30 @@ public class GatekeeperApi {
   }
 
   /**
-   * Returns all the Neighbor Clouds from the database.
+   * Returns the Neighbor Clouds from the database, one page at a time (see {@link Pagination}), optionally filtered by operator. The <i>after</i>
+   * parameter is the id of the last ArrowheadCloud on the previous page.
    *
    * @return List<NeighborCloud>
    */
   @GET
   @Path("neighborhood")
-  public List<NeighborCloud> getAllNeighborClouds() {
+  public Response getAllNeighborClouds(@QueryParam("operator") String operator, @QueryParam("after") Integer after,
+                                       @QueryParam("limit") Integer limit, @QueryParam("stream") boolean stream, @Context UriInfo uriInfo,
+                                       @Context HttpHeaders headers) {
+    if (operator != null) {
+      restrictionMap.put("cloud.operator", operator);
+    }
+    if (stream) {
+      return Pagination.streamAll(NeighborCloud.class, restrictionMap, null, null, headers);
+    }
 
-    List<NeighborCloud> cloudList = dm.getAll(NeighborCloud.class, restrictionMap);
-    if (cloudList.isEmpty()) {
+    Page<NeighborCloud> cloudPage = dm.getPage(NeighborCloud.class, restrictionMap, "cloud.id", after, Pagination.getLimit(limit));
+    if (cloudPage.getTotalCount() == 0) {
       log.info("GatekeeperApi:getAllNeighborClouds throws DataNotFoundException");
       throw new DataNotFoundException("NeighborClouds not found in the database.");
     }
 
-    return cloudList;
+    return Pagination.toResponse(cloudPage, uriInfo);
   }
 
   /**
@@ -189,15 +204,22 @@ public class GatekeeperApi {
 
   @GET
   @Path("brokers")
-  public List<Broker> getAllBrokers() {
+  public Response getAllBrokers(@QueryParam("address") String address, @QueryParam("after") Integer after, @QueryParam("limit") Integer limit,
+                                @QueryParam("stream") boolean stream, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+    if (address != null) {
+      restrictionMap.put("address", address);
+    }
+    if (stream) {
+      return Pagination.streamAll(Broker.class, restrictionMap, null, null, headers);
+    }
 
-    List<Broker> brokerList = dm.getAll(Broker.class, restrictionMap);
-    if (brokerList.isEmpty()) {
+    Page<Broker> brokerPage = dm.getPage(Broker.class, restrictionMap, "id", after, Pagination.getLimit(limit));
+    if (brokerPage.getTotalCount() == 0) {
       log.info("GatekeeperApi:getAllBrokers throws DataNotFoundException");
       throw new DataNotFoundException("Brokers not found in the database.");
     }
 
-    return brokerList;
+    return Pagination.toResponse(brokerPage, uriInfo);
   }
 
   @GET
@@ -31,6 +31,7 @@ import eu.arrowhead.common.messages.PreferredProvider;
 import eu.arrowhead.common.messages.ServiceQueryForm;
 import eu.arrowhead.common.messages.ServiceQueryResult;
 import eu.arrowhead.common.messages.ServiceRequestForm;
+import eu.arrowhead.common.misc.CoreSystemService;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -72,8 +73,7 @@ public class GatekeeperInboundResource {
 
     // Polling the Authorization System about the consumer Cloud
     InterCloudAuthRequest authRequest = new InterCloudAuthRequest(gsdPoll.getRequesterCloud(), gsdPoll.getRequestedService());
-    String authUri = UriBuilder.fromPath(GatekeeperMain.AUTH_CONTROL_URI).path("intercloud").toString();
-    Response authResponse = Utility.sendRequest(authUri, "PUT", authRequest);
+    Response authResponse = Utility.sendRequest(CoreSystemService.AUTH_CONTROL_SERVICE, "intercloud", "PUT", authRequest);
 
     // If the consumer Cloud is not authorized an error is returned
     if (!authResponse.readEntity(InterCloudAuthResponse.class).isAuthorized()) {
@@ -115,8 +115,7 @@ public class GatekeeperInboundResource {
 
     // Polling the Authorization System about the consumer Cloud
     InterCloudAuthRequest authRequest = new InterCloudAuthRequest(icnProposal.getRequesterCloud(), icnProposal.getRequestedService());
-    String authUri = UriBuilder.fromPath(GatekeeperMain.AUTH_CONTROL_URI).path("intercloud").toString();
-    Response authResponse = Utility.sendRequest(authUri, "PUT", authRequest);
+    Response authResponse = Utility.sendRequest(CoreSystemService.AUTH_CONTROL_SERVICE, "intercloud", "PUT", authRequest);
 
     // If the consumer Cloud is not authorized an error is returned
     if (!authResponse.readEntity(InterCloudAuthResponse.class).isAuthorized()) {
@@ -10,6 +10,7 @@
 package eu.arrowhead.core.gatekeeper;
 
 import eu.arrowhead.common.ArrowheadMain;
+import eu.arrowhead.common.CoreServiceResolver;
 import eu.arrowhead.common.DatabaseManager;
 import eu.arrowhead.common.Utility;
 import eu.arrowhead.common.database.ArrowheadService;
@@ -18,9 +19,16 @@ import eu.arrowhead.common.database.ServiceRegistryEntry;
 import eu.arrowhead.common.exception.ArrowheadException;
 import eu.arrowhead.common.exception.AuthException;
 import eu.arrowhead.common.exception.ExceptionType;
+import eu.arrowhead.common.misc.CoreSystem;
 import eu.arrowhead.common.misc.CoreSystemService;
+import eu.arrowhead.common.misc.HttpServerFactory;
+import eu.arrowhead.common.misc.Lifecycle;
 import eu.arrowhead.common.misc.SecurityUtils;
+import eu.arrowhead.common.misc.StartupTimer;
 import eu.arrowhead.common.misc.TypeSafeProperties;
+import eu.arrowhead.common.tracing.Tracer;
+import eu.arrowhead.core.gatekeeper.filter.AccessControlFilter;
+import eu.arrowhead.core.gatekeeper.filter.UnavailableFilter;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
@@ -34,6 +42,8 @@ import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.ServiceConfigurationError;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javax.net.ssl.SSLContext;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.core.UriBuilder;
@@ -42,7 +52,6 @@ import org.apache.log4j.PropertyConfigurator;
 import org.glassfish.grizzly.http.server.HttpServer;
 import org.glassfish.grizzly.ssl.SSLContextConfigurator;
 import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
-import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 
 public class GatekeeperMain {
@@ -51,7 +60,6 @@ public class GatekeeperMain {
   static boolean USE_GATEWAY;
   static String ORCHESTRATOR_URI;
   static String SERVICE_REGISTRY_URI;
-  static String AUTH_CONTROL_URI;
   static String[] GATEWAY_CONSUMER_URI;
   static String[] GATEWAY_PROVIDER_URI;
   static SSLContext outboundClientContext;
@@ -77,7 +85,16 @@ public class GatekeeperMain {
 
   public static void main(String[] args) throws IOException {
     System.out.println("Working directory: " + System.getProperty("user.dir"));
-    DatabaseManager.init();
+    StartupTimer timer = new StartupTimer("GATEKEEPER");
+    //Fast start mode: the database is initialized in parallel with the server start (see ArrowheadMain)
+    CompletableFuture<Void> database = CompletableFuture.runAsync(() -> {
+      long begin = timer.begin();
+      DatabaseManager.init();
+      timer.end("database", begin);
+    });
+    if (!props.getBooleanProperty("fast_start", false)) {
+      awaitDatabase(database);
+    }
 
     String address = props.getProperty("address", "0.0.0.0");
     int internalInsecurePort = props.getIntProperty("internal_insecure_port", 8446);
@@ -114,9 +131,14 @@ public class GatekeeperMain {
           OUTBOUND_BASE_URI = Utility.getUri(address, externalSecurePort, null, true, true);
           SERVICE_REGISTRY_URI = Utility.getUri(srAddress, srSecurePort, "serviceregistry", true, true);
           ORCHESTRATOR_URI = Utility.getUri(orchAddress, orchSecurePort, "orchestrator/orchestration", true, true);
+          long begin = timer.begin();
           inboundServer = startSecureServer(INBOUND_BASE_URI, true);
           outboundServer = startSecureServer(OUTBOUND_BASE_URI, false);
+          timer.end("servers", begin);
+          awaitDatabase(database);
+          begin = timer.begin();
           useSRService(true);
+          timer.end("registration", begin);
           IS_SECURE = true;
           break;
       }
@@ -127,12 +149,24 @@ public class GatekeeperMain {
       OUTBOUND_BASE_URI = Utility.getUri(address, externalInsecurePort, null, false, true);
       SERVICE_REGISTRY_URI = Utility.getUri(srAddress, srInsecurePort, "serviceregistry", false, true);
       ORCHESTRATOR_URI = Utility.getUri(orchAddress, orchInsecurePort, "orchestrator/orchestration", false, true);
+      long begin = timer.begin();
       inboundServer = startServer(INBOUND_BASE_URI, true);
       outboundServer = startServer(OUTBOUND_BASE_URI, false);
+      timer.end("servers", begin);
+      awaitDatabase(database);
+      begin = timer.begin();
       useSRService(true);
+      timer.end("registration", begin);
     }
     Utility.setServiceRegistryUri(SERVICE_REGISTRY_URI);
+    long begin = timer.begin();
     getCoreSystemServiceUris();
+    timer.end("core service lookup", begin);
+    CoreServiceResolver.addListener(GatekeeperMain::getCoreSystemServiceUris);
+    Lifecycle.systemStarted();
+    Lifecycle.setReady(UriBuilder.fromUri(INBOUND_BASE_URI).build().getPort(), true);
+    Lifecycle.setReady(UriBuilder.fromUri(OUTBOUND_BASE_URI).build().getPort(), true);
+    timer.report("ready");
 
     if (daemon) {
       System.out.println("In daemon mode, process will terminate for TERM signal...");
@@ -149,22 +183,43 @@ public class GatekeeperMain {
       }
       br.close();
       shutdown();
+      System.exit(0);
+    }
+  }
+
+  private static void awaitDatabase(CompletableFuture<Void> database) {
+    try {
+      database.join();
+    } catch (CompletionException e) {
+      for (HttpServer server : Arrays.asList(inboundServer, outboundServer)) {
+        if (server != null) {
+          server.shutdownNow();
+        }
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
     }
   }
 
   private static HttpServer startServer(final String url, final boolean inbound) {
     final ResourceConfig config = new ResourceConfig();
+    config.property(Tracer.SYSTEM_PROPERTY, (inbound ? CoreSystem.GATEKEEPER_INTERNAL : CoreSystem.GATEKEEPER_EXTERNAL).name());
     if (inbound) {
       config.registerClasses(GatekeeperApi.class, GatekeeperInboundResource.class);
     } else {
       config.registerClasses(GatekeeperOutboundResource.class);
     }
-    config.packages("eu.arrowhead.common", "eu.arrowhead.core.gatekeeper.filter");
+    config.registerClasses(ArrowheadMain.commonClasses);
+    config.registerClasses(AccessControlFilter.class, UnavailableFilter.class);
 
     URI uri = UriBuilder.fromUri(url).build();
     try {
-      final HttpServer server = GrizzlyHttpServerFactory.createHttpServer(uri, config, false);
-      server.getServerConfiguration().setAllowPayloadForUndefinedHttpMethods(true);
+      final HttpServer server = HttpServerFactory.createServer(uri, config, null, props);
       server.start();
       if (inbound) {
         log.info("Started inbound server at: " + url);
@@ -182,12 +237,14 @@ public class GatekeeperMain {
 
   private static HttpServer startSecureServer(final String url, final boolean inbound) {
     final ResourceConfig config = new ResourceConfig();
+    config.property(Tracer.SYSTEM_PROPERTY, (inbound ? CoreSystem.GATEKEEPER_INTERNAL : CoreSystem.GATEKEEPER_EXTERNAL).name());
     if (inbound) {
       config.registerClasses(GatekeeperInboundResource.class);
     } else {
       config.registerClasses(GatekeeperApi.class, GatekeeperOutboundResource.class);
     }
-    config.packages("eu.arrowhead.common", "eu.arrowhead.core.gatekeeper.filter");
+    config.registerClasses(ArrowheadMain.commonClasses);
+    config.registerClasses(AccessControlFilter.class, UnavailableFilter.class);
 
     String gatekeeperKeystorePath = props.getProperty("gatekeeper_keystore");
     String gatekeeperKeystorePass = props.getProperty("gatekeeper_keystore_pass");
@@ -234,9 +291,8 @@ public class GatekeeperMain {
 
     URI uri = UriBuilder.fromUri(url).build();
     try {
-      final HttpServer server = GrizzlyHttpServerFactory
-          .createHttpServer(uri, config, true, new SSLEngineConfigurator(serverContext).setClientMode(false).setNeedClientAuth(true), false);
-      server.getServerConfiguration().setAllowPayloadForUndefinedHttpMethods(true);
+      final HttpServer server = HttpServerFactory
+          .createServer(uri, config, new SSLEngineConfigurator(serverContext).setClientMode(false).setNeedClientAuth(true), props);
       server.start();
       if (inbound) {
         log.info("Started inbound server at: " + url);
@@ -298,7 +354,18 @@ public class GatekeeperMain {
   }
 
   public static void getCoreSystemServiceUris() {
-    AUTH_CONTROL_URI = Utility.getServiceInfo(CoreSystemService.AUTH_CONTROL_SERVICE.getServiceDef())[0];
+    List<String> services = new ArrayList<>(Collections.singletonList(CoreSystemService.AUTH_CONTROL_SERVICE.getServiceDef()));
+    if (USE_GATEWAY) {
+      services.add(CoreSystemService.GW_CONSUMER_SERVICE.getServiceDef());
+      services.add(CoreSystemService.GW_PROVIDER_SERVICE.getServiceDef());
+    }
+    if (!FIRST_SR_QUERY) {
+      services.add(CoreSystemService.ORCH_SERVICE.getServiceDef());
+    }
+    //The not yet cached URIs are queried in parallel, the lookups below are served from the cache
+    CoreServiceResolver.prefetch(services);
+    //Authorization requests are load balanced between the providers, the lookup only checks that it is available
+    Utility.getServiceInfo(CoreSystemService.AUTH_CONTROL_SERVICE.getServiceDef());
     if (USE_GATEWAY) {
       GATEWAY_CONSUMER_URI = Utility.getServiceInfo(CoreSystemService.GW_CONSUMER_SERVICE.getServiceDef());
       GATEWAY_PROVIDER_URI = Utility.getServiceInfo(CoreSystemService.GW_PROVIDER_SERVICE.getServiceDef());
@@ -331,19 +398,37 @@ public class GatekeeperMain {
     return serverCN;
   }
 
+  //Also runs in a shutdown hook (daemon mode), where System.exit would block forever. The servers drain before they stop, like in ArrowheadMain.
   private static void shutdown() {
+    long deadline = System.currentTimeMillis() + props.getIntProperty("shutdown_timeout", 30000);
+    Lifecycle.setReady(UriBuilder.fromUri(INBOUND_BASE_URI).build().getPort(), false);
+    Lifecycle.setReady(UriBuilder.fromUri(OUTBOUND_BASE_URI).build().getPort(), false);
+    if (outboundServer != null) {
+      try {
+        useSRService(false);
+      } catch (RuntimeException e) {
+        log.warn("Service deregistration failed: " + e.getMessage());
+      }
+    }
+    try {
+      Thread.sleep(Math.min(props.getIntProperty("shutdown_drain_delay", 1000), Math.max(deadline - System.currentTimeMillis(), 0)));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
     if (inboundServer != null) {
       log.info("Stopping server at: " + INBOUND_BASE_URI);
-      inboundServer.shutdownNow();
+      Lifecycle.stopServer(inboundServer, deadline);
     }
     if (outboundServer != null) {
       log.info("Stopping server at: " + OUTBOUND_BASE_URI);
-      outboundServer.shutdown();
-      useSRService(false);
+      Lifecycle.stopServer(outboundServer, deadline);
+    }
+    Lifecycle.awaitBackgroundWork(deadline);
+    if (Lifecycle.systemStopped()) {
+      DatabaseManager.closeSessionFactory();
+      Tracer.flush();
     }
-    DatabaseManager.closeSessionFactory();
     System.out.println("Gatekeeper Server stopped");
-    System.exit(0);
   }
 
 }
@@ -34,6 +34,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.PUT;
@@ -96,14 +98,28 @@ public class GatekeeperOutboundResource {
     }
     log.info("Sending GSD poll request to " + cloudURIs.size() + " clouds.");
 
-    // Finalizing the URIs, process the responses
+    // Finalizing the URIs, the polls are sent to every cloud at once, and the responses are processed in order
+    List<String> pollURIs = new ArrayList<>();
+    List<CompletionStage<Response>> polls = new ArrayList<>();
+    for (String uri : cloudURIs) {
+      uri = UriBuilder.fromPath(uri).path("gsd_poll").toString();
+      pollURIs.add(uri);
+      try {
+        polls.add(Utility.sendRequestAsync(uri, "PUT", gsdPoll, GatekeeperMain.outboundClientContext));
+      } catch (ArrowheadException ex) {
+        // Handled with the responses below
+        CompletableFuture<Response> failedPoll = new CompletableFuture<>();
+        failedPoll.completeExceptionally(ex);
+        polls.add(failedPoll);
+      }
+    }
+
     List<GSDAnswer> gsdAnswerList = new ArrayList<>();
     Response response;
     int i = 0;
-    for (String uri : cloudURIs) {
-      uri = UriBuilder.fromPath(uri).path("gsd_poll").toString();
+    for (String uri : pollURIs) {
       try {
-        response = Utility.sendRequest(uri, "PUT", gsdPoll, GatekeeperMain.outboundClientContext);
+        response = Utility.joinRequest(polls.get(i));
       }
       // We skip those that did not respond positively, add the rest to the result list
       catch (ArrowheadException ex) {
@@ -9,8 +9,9 @@
 
 package eu.arrowhead.core.gatekeeper.filter;
 
-import eu.arrowhead.common.Utility;
+import eu.arrowhead.common.CoreServiceResolver;
 import eu.arrowhead.common.exception.UnavailableServerException;
+import eu.arrowhead.common.json.JsonCodec;
 import eu.arrowhead.core.gatekeeper.GatekeeperMain;
 import javax.annotation.Priority;
 import javax.ws.rs.Priorities;
@@ -27,9 +28,13 @@ public class UnavailableFilter implements ContainerResponseFilter {
   @Override
   public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
     if (responseContext.getStatus() == Status.SERVICE_UNAVAILABLE.getStatusCode()) {
-      String response = Utility.toPrettyJson(null, responseContext.getEntity());
+      String response = responseContext.hasEntity() ? JsonCodec.toJson(responseContext.getEntity()) : null;
       if (response != null && response.contains(UnavailableServerException.class.getName())) {
-        Thread querySR = new Thread(GatekeeperMain::getCoreSystemServiceUris);
+        //Queries the Service Registry again, then reloads the URIs (a provider without failed requests is selected even if the SR is down)
+        Thread querySR = new Thread(() -> {
+          CoreServiceResolver.refresh();
+          GatekeeperMain.getCoreSystemServiceUris();
+        });
 
         querySR.start();
       }
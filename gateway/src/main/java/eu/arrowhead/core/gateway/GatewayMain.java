@@ -11,8 +11,10 @@ package eu.arrowhead.core.gateway;
 
 import eu.arrowhead.common.ArrowheadMain;
 import eu.arrowhead.common.misc.CoreSystem;
+import eu.arrowhead.common.misc.Lifecycle;
 import eu.arrowhead.common.misc.SecurityUtils;
-import java.util.Collections;
+import eu.arrowhead.core.gateway.filter.AccessControlFilter;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import javax.net.ssl.SSLContext;
@@ -26,14 +28,15 @@ public class GatewayMain extends ArrowheadMain {
   static SSLContext clientContext;
 
   private GatewayMain(String[] args) {
-    Set<Class<?>> classes = new HashSet<>(Collections.singleton(GatewayResource.class));
-    String[] packages = {"eu.arrowhead.common", "eu.arrowhead.core.gateway.filter"};
-    init(CoreSystem.GATEWAY, args, classes, packages);
+    Set<Class<?>> classes = new HashSet<>(Arrays.asList(GatewayResource.class, AccessControlFilter.class));
+    init(CoreSystem.GATEWAY, args, classes);
 
     minPort = props.getIntProperty("min_port", 8000);
     maxPort = props.getIntProperty("max_port", 8100);
     keystore = props.getProperty("keystore");
     keystorePass = props.getProperty("keystorepass");
+    //The shutdown waits for the open sessions to finish, until its deadline
+    Lifecycle.addDrainCondition("gateway sessions", () -> GatewayService.activeSessions.isEmpty());
     listenForInput();
   }
 
@@ -42,14 +45,14 @@ public class GatewayMain extends ArrowheadMain {
   }
 
   @Override
-  protected void startSecureServer(Set<Class<?>> classes, String[] packages) {
+  protected void startSecureServer(Set<Class<?>> classes) {
     String truststorePath = props.getProperty("truststore");
     String truststorePass = props.getProperty("truststorepass");
     String trustPass = props.getProperty("trustpass");
     String masterArrowheadCertPath = props.getProperty("master_arrowhead_cert");
 
     clientContext = SecurityUtils.createMasterSSLContext(truststorePath, truststorePass, trustPass, masterArrowheadCertPath);
-    super.startSecureServer(classes, packages);
+    super.startSecureServer(classes);
   }
 
 }
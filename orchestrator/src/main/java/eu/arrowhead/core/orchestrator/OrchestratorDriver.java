@@ -32,6 +32,7 @@ import eu.arrowhead.common.messages.ServiceRequestForm;
 import eu.arrowhead.common.messages.TokenGenHelper;
 import eu.arrowhead.common.messages.TokenGenerationRequest;
 import eu.arrowhead.common.messages.TokenGenerationResponse;
+import eu.arrowhead.common.misc.CoreSystemService;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -40,6 +41,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriBuilder;
@@ -119,11 +121,10 @@ final class OrchestratorDriver {
 
   static Set<ArrowheadSystem> queryAuthorization(ArrowheadSystem consumer, ArrowheadService service, Set<ArrowheadSystem> providerSet) {
     // Compiling the URI and the request payload
-    String uri = UriBuilder.fromPath(OrchestratorMain.AUTH_CONTROL_URI).path("intracloud").toString();
     IntraCloudAuthRequest request = new IntraCloudAuthRequest(consumer, providerSet, service);
 
     // Sending the request, parsing the returned result
-    Response response = Utility.sendRequest(uri, "PUT", request);
+    Response response = Utility.sendRequest(CoreSystemService.AUTH_CONTROL_SERVICE, "intracloud", "PUT", request);
     IntraCloudAuthResponse authResponse = response.readEntity(IntraCloudAuthResponse.class);
     Set<ArrowheadSystem> authorizedSystems = new HashSet<>();
     // Set view of HashMap ensures there are no duplicates between the keys (systems)
@@ -390,7 +391,7 @@ final class OrchestratorDriver {
     GSDRequestForm requestForm = new GSDRequestForm(requestedService, preferredClouds, registryFlags);
 
     // Sending the request, sanity check on the returned result
-    Response response = Utility.sendRequest(OrchestratorMain.GSD_SERVICE_URI, "PUT", requestForm);
+    Response response = Utility.sendRequest(CoreSystemService.GSD_SERVICE, null, "PUT", requestForm);
     GSDResult result = response.readEntity(GSDResult.class);
     if (!result.isValid()) {
       log.error("doGlobalServiceDiscovery DataNotFoundException");
@@ -480,7 +481,7 @@ final class OrchestratorDriver {
                                                     negotiationFlags);
 
     // Sending the request, doing sanity check on the returned result
-    Response response = Utility.sendRequest(OrchestratorMain.ICN_SERVICE_URI, "PUT", requestForm);
+    Response response = Utility.sendRequest(CoreSystemService.ICN_SERVICE, null, "PUT", requestForm);
     ICNResult result = response.readEntity(ICNResult.class);
     if (!result.isValid()) {
       log.error("doInterCloudNegotiations DataNotFoundException");
@@ -540,12 +541,17 @@ final class OrchestratorDriver {
     /* Getting a list of service - providers pairs, where the service contains the security - token metadata. This ensures that token generation is
        invoked the minimum amount of times */
     List<TokenGenHelper> tokenGenHelpers = TokenGenHelper.convertOfList(ofList);
+    // Sending the token generation requests of the different services at once
+    List<CompletionStage<Response>> tokenRequests = new ArrayList<>();
     for (TokenGenHelper helper : tokenGenHelpers) {
       // Compiling the request payload
       TokenGenerationRequest tokenRequest = new TokenGenerationRequest(srf.getRequesterSystem(), srf.getRequesterCloud(), helper.getProviders(),
                                                                        helper.getService(), 0);
-      // Sending the token generation request, parsing the response
-      Response authResponse = Utility.sendRequest(OrchestratorMain.TOKEN_GEN_URI, "PUT", tokenRequest);
+      tokenRequests.add(Utility.sendRequestAsync(CoreSystemService.TOKEN_GEN_SERVICE, null, "PUT", tokenRequest));
+    }
+    for (CompletionStage<Response> tokenRequest : tokenRequests) {
+      // Waiting for the token generation response, parsing it
+      Response authResponse = Utility.joinRequest(tokenRequest);
       TokenGenerationResponse tokenResponse = authResponse.readEntity(TokenGenerationResponse.class);
 
       if (tokenResponse != null && tokenResponse.getTokenData() != null && tokenResponse.getTokenData().size() > 0) {
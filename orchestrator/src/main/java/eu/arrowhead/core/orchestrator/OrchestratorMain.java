@@ -10,28 +10,37 @@
 package eu.arrowhead.core.orchestrator;
 
 import eu.arrowhead.common.ArrowheadMain;
+import eu.arrowhead.common.CoreServiceResolver;
 import eu.arrowhead.common.Utility;
+import eu.arrowhead.common.exception.ArrowheadException;
 import eu.arrowhead.common.misc.CoreSystem;
 import eu.arrowhead.common.misc.CoreSystemService;
+import eu.arrowhead.core.orchestrator.api.CommonApi;
+import eu.arrowhead.core.orchestrator.api.StoreApi;
+import eu.arrowhead.core.orchestrator.api.StoreResource;
+import eu.arrowhead.core.orchestrator.filter.AccessControlFilter;
+import eu.arrowhead.core.orchestrator.filter.UnavailableFilter;
 import eu.arrowhead.core.orchestrator.support.OldOrchResource;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.ServiceConfigurationError;
 import java.util.Set;
+import org.apache.log4j.Logger;
 
 
 public class OrchestratorMain extends ArrowheadMain {
 
   static boolean USE_GATEKEEPER = true;
   static String SR_BASE_URI;
-  static String AUTH_CONTROL_URI;
-  static String TOKEN_GEN_URI;
-  static String GSD_SERVICE_URI;
-  static String ICN_SERVICE_URI;
+
+  private static final Logger log = Logger.getLogger(OrchestratorMain.class.getName());
 
   private OrchestratorMain(String[] args) {
-    Set<Class<?>> classes = new HashSet<>(Arrays.asList(OrchestratorResource.class, OldOrchResource.class));
-    String[] packages = {"eu.arrowhead.common", "eu.arrowhead.core.orchestrator.api", "eu.arrowhead.core.orchestrator.filter"};
-    init(CoreSystem.ORCHESTRATOR, args, classes, packages);
+    Set<Class<?>> classes = new HashSet<>(Arrays.asList(OrchestratorResource.class, OldOrchResource.class, CommonApi.class, StoreApi.class,
+                                                        StoreResource.class, AccessControlFilter.class, UnavailableFilter.class));
+    init(CoreSystem.ORCHESTRATOR, args, classes);
     listenForInput();
   }
 
@@ -40,8 +49,8 @@ public class OrchestratorMain extends ArrowheadMain {
   }
 
   @Override
-  protected void init(CoreSystem coreSystem, String[] args, Set<Class<?>> classes, String[] packages) {
-    super.init(coreSystem, args, classes, packages);
+  protected void init(CoreSystem coreSystem, String[] args, Set<Class<?>> classes) {
+    super.init(coreSystem, args, classes);
     argLoop:
     for (String arg : args) {
       switch (arg) {
@@ -51,16 +60,34 @@ public class OrchestratorMain extends ArrowheadMain {
       }
     }
     SR_BASE_URI = srBaseUri;
-    getCoreSystemServiceUris();
-    listenForInput();
+    if (fastStart) {
+      //The other core systems may still be registering their services, the missing ones are resolved on their first use
+      Thread lookup = new Thread(() -> {
+        try {
+          getCoreSystemServiceUris();
+        } catch (ServiceConfigurationError | ArrowheadException e) {
+          log.warn("Core system URLs are not available yet: " + e.getMessage());
+        }
+      }, "core-service-lookup");
+      lookup.setDaemon(true);
+      lookup.start();
+    } else {
+      getCoreSystemServiceUris();
+    }
   }
 
   public static void getCoreSystemServiceUris() {
-    AUTH_CONTROL_URI = Utility.getServiceInfo(CoreSystemService.AUTH_CONTROL_SERVICE.getServiceDef())[0];
-    TOKEN_GEN_URI = Utility.getServiceInfo(CoreSystemService.TOKEN_GEN_SERVICE.getServiceDef())[0];
+    List<String> services = new ArrayList<>(Arrays.asList(CoreSystemService.AUTH_CONTROL_SERVICE.getServiceDef(),
+                                                          CoreSystemService.TOKEN_GEN_SERVICE.getServiceDef()));
     if (USE_GATEKEEPER) {
-      GSD_SERVICE_URI = Utility.getServiceInfo(CoreSystemService.GSD_SERVICE.getServiceDef())[0];
-      ICN_SERVICE_URI = Utility.getServiceInfo(CoreSystemService.ICN_SERVICE.getServiceDef())[0];
+      services.add(CoreSystemService.GSD_SERVICE.getServiceDef());
+      services.add(CoreSystemService.ICN_SERVICE.getServiceDef());
+    }
+    //The not yet cached URIs are queried in parallel. The requests are load balanced between the providers, the lookups only check that every
+    //core service is available.
+    CoreServiceResolver.prefetch(services);
+    for (String service : services) {
+      Utility.getServiceInfo(service);
     }
     System.out.println("Core system URLs acquired.");
   }
@@ -22,6 +22,7 @@ import eu.arrowhead.common.messages.OrchestrationResponse;
 import eu.arrowhead.common.messages.OrchestratorWarnings;
 import eu.arrowhead.common.messages.PreferredProvider;
 import eu.arrowhead.common.messages.ServiceRequestForm;
+import eu.arrowhead.common.tracing.Tracer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -131,8 +132,7 @@ final class OrchestratorService {
                                        Status.NOT_FOUND.getStatusCode(), ex);
         }
         log.info("Intra-Cloud dynamicOrchestration failed with: " + ex.getMessage());
-        ex.printStackTrace();
-        System.out.println("Intra-Cloud orchestration failed, moving to Inter-Cloud options.");
+        Tracer.current().addEvent("Intra-Cloud orchestration failed (" + ex.getMessage() + "), moving to Inter-Cloud options");
       }
     }
 
@@ -197,9 +197,8 @@ final class OrchestratorService {
           // If the ICN process failed on this store entry, we catch the exception and go to the next Store entry in the for-loop.
           catch (ArrowheadException ex) {
             log.info("orchestrationFromStore catches ArrowheadException at ICN process, going to the next Store entry");
-            ex.printStackTrace();
-            System.out
-                .println("Inter-Cloud store based orchestration failed for " + srf.getPreferredProviders().get(0) + ", moving to the next option.");
+            Tracer.current().addEvent("Inter-Cloud store based orchestration failed for " + entry.getProviderCloud().getCloudName() + " ("
+                                          + ex.getMessage() + "), moving to the next option");
           }
         }
       }
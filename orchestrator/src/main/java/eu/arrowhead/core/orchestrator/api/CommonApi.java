@@ -14,12 +14,15 @@ import eu.arrowhead.common.database.ArrowheadCloud;
 import eu.arrowhead.common.database.ArrowheadService;
 import eu.arrowhead.common.database.ArrowheadSystem;
 import eu.arrowhead.common.exception.DataNotFoundException;
+import eu.arrowhead.common.misc.Page;
+import eu.arrowhead.common.misc.Pagination;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -28,9 +31,13 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
 import org.apache.log4j.Logger;
 
 @Path("orchestrator/mgmt/common")
@@ -49,21 +56,25 @@ public class CommonApi {
   }
 
   /**
-   * Returns the list of ArrowheadServices from the database.
+   * Returns the list of ArrowheadServices from the database, one page at a time (see {@link Pagination}).
    *
    * @return List<ArrowheadService>
    */
   @GET
   @Path("services")
-  public List<ArrowheadService> getAllServices() {
+  public Response getAllServices(@QueryParam("after") Integer after, @QueryParam("limit") Integer limit,
+                                 @QueryParam("stream") boolean stream, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+    if (stream) {
+      return Pagination.streamAll(ArrowheadService.class, restrictionMap, null, null, headers);
+    }
 
-    List<ArrowheadService> serviceList = dm.getAll(ArrowheadService.class, restrictionMap);
-    if (serviceList.isEmpty()) {
+    Page<ArrowheadService> servicePage = dm.getPage(ArrowheadService.class, restrictionMap, "id", after, Pagination.getLimit(limit));
+    if (servicePage.getTotalCount() == 0) {
       log.info("getAllServices throws DataNotFoundException");
       throw new DataNotFoundException("ArrowheadServices not found in the database.");
     }
 
-    return serviceList;
+    return Pagination.toResponse(servicePage, uriInfo);
   }
 
   /**
@@ -95,13 +106,20 @@ public class CommonApi {
   @Path("services")
   public Response addServices(List<ArrowheadService> serviceList) {
 
-    List<ArrowheadService> savedServices = new ArrayList<>();
+    Set<String> serviceDefinitions = new HashSet<>();
     for (ArrowheadService service : serviceList) {
       service.missingFields(true, false, null);
-      restrictionMap.clear();
-      restrictionMap.put("serviceDefinition", service.getServiceDefinition());
-      ArrowheadService retrievedService = dm.get(ArrowheadService.class, restrictionMap);
-      if (retrievedService == null) {
+      serviceDefinitions.add(service.getServiceDefinition());
+    }
+    // Every service definition already in the database, retrieved with one query instead of one query per list element
+    Set<String> existingDefinitions = new HashSet<>();
+    for (ArrowheadService retrievedService : dm.getAllByKeys(ArrowheadService.class, "serviceDefinition", serviceDefinitions)) {
+      existingDefinitions.add(retrievedService.getServiceDefinition());
+    }
+
+    List<ArrowheadService> savedServices = new ArrayList<>();
+    for (ArrowheadService service : serviceList) {
+      if (existingDefinitions.add(service.getServiceDefinition())) {
         dm.save(service);
         savedServices.add(service);
       }
@@ -152,21 +170,28 @@ public class CommonApi {
   }
 
   /**
-   * Returns the list of ArrowheadSystems from the database.
+   * Returns the list of ArrowheadSystems from the database, one page at a time (see {@link Pagination}), optionally filtered by address.
    *
    * @return List<ArrowheadSystem>
    */
   @GET
   @Path("systems")
-  public List<ArrowheadSystem> getAllSystems() {
+  public Response getAllSystems(@QueryParam("address") String address, @QueryParam("after") Integer after, @QueryParam("limit") Integer limit,
+                                @QueryParam("stream") boolean stream, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+    if (address != null) {
+      restrictionMap.put("address", address);
+    }
+    if (stream) {
+      return Pagination.streamAll(ArrowheadSystem.class, restrictionMap, null, null, headers);
+    }
 
-    List<ArrowheadSystem> systemList = dm.getAll(ArrowheadSystem.class, restrictionMap);
-    if (systemList.isEmpty()) {
+    Page<ArrowheadSystem> systemPage = dm.getPage(ArrowheadSystem.class, restrictionMap, "id", after, Pagination.getLimit(limit));
+    if (systemPage.getTotalCount() == 0) {
       log.info("getAllSystems throws DataNotFoundException");
       throw new DataNotFoundException("ArrowheadSystems not found in the database.");
     }
 
-    return systemList;
+    return Pagination.toResponse(systemPage, uriInfo);
   }
 
   /**
@@ -198,14 +223,19 @@ public class CommonApi {
   @Path("systems")
   public Response addSystems(List<ArrowheadSystem> systemList) {
 
-    List<ArrowheadSystem> savedSystems = new ArrayList<>();
+    Set<String> systemNames = new HashSet<>();
     for (ArrowheadSystem system : systemList) {
       system.missingFields(true, new HashSet<>(Collections.singleton("address")));
-      restrictionMap.clear();
-      restrictionMap.put("systemName", system.getSystemName());
-      ArrowheadSystem retrievedSystem = dm.get(ArrowheadSystem.class, restrictionMap);
-      restrictionMap.clear();
-      if (retrievedSystem == null) {
+      systemNames.add(system.getSystemName());
+    }
+    Set<String> existingNames = new HashSet<>();
+    for (ArrowheadSystem retrievedSystem : dm.getAllByKeys(ArrowheadSystem.class, "systemName", systemNames)) {
+      existingNames.add(retrievedSystem.getSystemName());
+    }
+
+    List<ArrowheadSystem> savedSystems = new ArrayList<>();
+    for (ArrowheadSystem system : systemList) {
+      if (existingNames.add(system.getSystemName())) {
         dm.save(system);
         savedSystems.add(system);
       }
@@ -257,21 +287,28 @@ public class CommonApi {
   }
 
   /**
-   * Returns the list of ArrowheadClouds from the database.
+   * Returns the list of ArrowheadClouds from the database, one page at a time (see {@link Pagination}), optionally filtered by operator.
    *
    * @return List<ArrowheadCloud>
    */
   @GET
   @Path("clouds")
-  public List<ArrowheadCloud> getAllClouds() {
+  public Response getAllClouds(@QueryParam("operator") String operator, @QueryParam("after") Integer after, @QueryParam("limit") Integer limit,
+                               @QueryParam("stream") boolean stream, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+    if (operator != null) {
+      restrictionMap.put("operator", operator);
+    }
+    if (stream) {
+      return Pagination.streamAll(ArrowheadCloud.class, restrictionMap, null, null, headers);
+    }
 
-    List<ArrowheadCloud> cloudList = dm.getAll(ArrowheadCloud.class, restrictionMap);
-    if (cloudList.isEmpty()) {
+    Page<ArrowheadCloud> cloudPage = dm.getPage(ArrowheadCloud.class, restrictionMap, "id", after, Pagination.getLimit(limit));
+    if (cloudPage.getTotalCount() == 0) {
       log.info("CommonApi:getAllClouds throws DataNotFoundException");
       throw new DataNotFoundException("ArrowheadClouds not found in the database.");
     }
 
-    return cloudList;
+    return Pagination.toResponse(cloudPage, uriInfo);
   }
 
   /**
@@ -17,6 +17,8 @@ import eu.arrowhead.common.database.OrchestrationStore;
 import eu.arrowhead.common.exception.BadPayloadException;
 import eu.arrowhead.common.exception.DataNotFoundException;
 import eu.arrowhead.common.messages.OrchestrationStoreQuery;
+import eu.arrowhead.common.misc.Page;
+import eu.arrowhead.common.misc.Pagination;
 import eu.arrowhead.core.orchestrator.StoreService;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -32,10 +34,14 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
 import org.apache.log4j.Logger;
 
 @Path("orchestrator/mgmt/store")
@@ -74,43 +80,85 @@ public class StoreApi {
   }
 
   /**
-   * Returns all the entries of the Orchestration Store.
+   * Returns the entries of the Orchestration Store, one page at a time (see {@link Pagination}), optionally filtered by the system name of the
+   * consumer and by the service definition. The entries are sorted by priority (and by id among the same priority) across the pages and in the
+   * streamed result too, so the <i>after</i> parameter is the <i>priority,id</i> pair of the last entry of the previous page.
    *
    * @return List<OrchestrationStore>
    */
   @GET
   @Path("all")
-  public List<OrchestrationStore> getAllStoreEntries() {
+  public Response getAllStoreEntries(@QueryParam("consumer") String consumer, @QueryParam("service") String service,
+                                     @QueryParam("after") String after, @QueryParam("limit") Integer limit, @QueryParam("stream") boolean stream,
+                                     @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+    addFilters(consumer, service);
+    if (stream) {
+      return Pagination.streamAll(OrchestrationStore.class, restrictionMap, null, null, headers, "priority", "id");
+    }
 
-    List<OrchestrationStore> store = dm.getAll(OrchestrationStore.class, restrictionMap);
-    if (store.isEmpty()) {
+    Page<OrchestrationStore> store = getPage(after, limit);
+    if (store.getTotalCount() == 0) {
       log.info("getAllStoreEntries throws DataNotFoundException.");
       throw new DataNotFoundException("The Orchestration Store is empty.");
     }
 
-    Collections.sort(store);
     log.info("getAllStoreEntries successfully returns.");
-    return store;
+    return Pagination.toResponse(store, uriInfo);
   }
 
   /**
-   * Returns all the default entries of the Orchestration Store.
+   * Returns the default entries of the Orchestration Store, one page at a time (see {@link Pagination}), with the same filters and priority order as
+   * the all endpoint.
    *
    * @return List<OrchestrationStore>
    */
   @GET
   @Path("all_default")
-  public List<OrchestrationStore> getDefaultStoreEntries() {
+  public Response getDefaultStoreEntries(@QueryParam("consumer") String consumer, @QueryParam("service") String service,
+                                         @QueryParam("after") String after, @QueryParam("limit") Integer limit, @QueryParam("stream") boolean stream,
+                                         @Context UriInfo uriInfo, @Context HttpHeaders headers) {
     restrictionMap.put("defaultEntry", true);
-    List<OrchestrationStore> store = dm.getAll(OrchestrationStore.class, restrictionMap);
-    if (store.isEmpty()) {
+    addFilters(consumer, service);
+    if (stream) {
+      return Pagination.streamAll(OrchestrationStore.class, restrictionMap, null, null, headers, "priority", "id");
+    }
+
+    Page<OrchestrationStore> store = getPage(after, limit);
+    if (store.getTotalCount() == 0) {
       log.info("getDefaultStoreEntries throws DataNotFoundException.");
       throw new DataNotFoundException("Default Orchestration Store entries were not found.");
     }
 
-    Collections.sort(store);
     log.info("getDefaultStoreEntries successfully returns.");
-    return store;
+    return Pagination.toResponse(store, uriInfo);
+  }
+
+  //The after parameter is the "priority,id" next key of the previous page
+  private Page<OrchestrationStore> getPage(String after, Integer limit) {
+    Integer afterPriority = null;
+    Integer afterId = null;
+    if (after != null) {
+      String[] keys = after.split(",");
+      try {
+        afterPriority = Integer.valueOf(keys[0].trim());
+        afterId = keys.length == 2 ? Integer.valueOf(keys[1].trim()) : null;
+      } catch (NumberFormatException e) {
+        afterId = null;
+      }
+      if (afterId == null) {
+        throw new BadPayloadException("The after parameter must be the priority,id pair of the last entry of the previous page.");
+      }
+    }
+    return dm.getPage(OrchestrationStore.class, restrictionMap, "priority", afterPriority, "id", afterId, Pagination.getLimit(limit));
+  }
+
+  private void addFilters(String consumer, String service) {
+    if (consumer != null) {
+      restrictionMap.put("consumer.systemName", consumer);
+    }
+    if (service != null) {
+      restrictionMap.put("service.serviceDefinition", service);
+    }
   }
 
   /**
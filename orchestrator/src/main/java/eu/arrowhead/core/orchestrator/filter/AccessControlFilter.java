@@ -11,11 +11,10 @@ package eu.arrowhead.core.orchestrator.filter;
 
 import eu.arrowhead.common.Utility;
 import eu.arrowhead.common.exception.AuthException;
+import eu.arrowhead.common.filter.ParsedPayloadInterceptor;
 import eu.arrowhead.common.messages.ServiceRequestForm;
 import eu.arrowhead.common.misc.SecurityUtils;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
 import javax.annotation.Priority;
 import javax.ws.rs.Priorities;
 import javax.ws.rs.container.ContainerRequestContext;
@@ -36,26 +35,17 @@ public class AccessControlFilter implements ContainerRequestFilter {
   private Configuration configuration;
 
   @Override
-  public void filter(ContainerRequestContext requestContext) {
+  public void filter(ContainerRequestContext requestContext) throws IOException {
     SecurityContext sc = requestContext.getSecurityContext();
     String requestTarget = Utility.stripEndSlash(requestContext.getUriInfo().getRequestUri().toString());
     if (sc.isSecure() && !isGetItCalled(requestContext.getMethod(), requestTarget)) {
-      String requestJson = Utility.getRequestPayload(requestContext.getEntityStream());
       String commonName = SecurityUtils.getCertCNFromSubject(sc.getUserPrincipal().getName());
-      if (isClientAuthorized(commonName, requestTarget, requestJson)) {
+      if (isClientAuthorized(commonName, requestTarget, requestContext)) {
         log.info("SSL identification is successful! Cert: " + commonName);
       } else {
         log.error(commonName + " is unauthorized to access " + requestTarget);
         throw new AuthException(commonName + " is unauthorized to access " + requestTarget, Status.UNAUTHORIZED.getStatusCode());
       }
-
-      try {
-        InputStream in = new ByteArrayInputStream(requestJson.getBytes("UTF-8"));
-        requestContext.setEntityStream(in);
-      } catch (UnsupportedEncodingException e) {
-        log.fatal("AccessControlFilter String.getBytes() has unsupported charset set!");
-        throw new AssertionError("AccessControlFilter String.getBytes() has unsupported charset set! Code needs to be changed!", e);
-      }
     }
   }
 
@@ -64,7 +54,7 @@ public class AccessControlFilter implements ContainerRequestFilter {
         .endsWith("mgmt/store"));
   }
 
-  private boolean isClientAuthorized(String clientCN, String requestTarget, String requestJson) {
+  private boolean isClientAuthorized(String clientCN, String requestTarget, ContainerRequestContext requestContext) throws IOException {
     String serverCN = (String) configuration.getProperty("server_common_name");
 
     if (!SecurityUtils.isKeyStoreCNArrowheadValid(clientCN)) {
@@ -75,14 +65,14 @@ public class AccessControlFilter implements ContainerRequestFilter {
     String[] serverFields = serverCN.split("\\.", 2);
     String[] clientFields = clientCN.split("\\.", 2);
     // serverFields contains: coreSystemName, cloudName.operator.arrowhead.eu
-    if (requestTarget.contains("mgmt")) {
+    if (requestTarget.contains("mgmt") || requestTarget.endsWith("metrics")) {
       // Only the local System Operator can use these methods
       return clientCN.equalsIgnoreCase("sysop." + serverFields[1]);
     } else if (requestTarget.contains("store")) {
       // Only requests from the local cloud are allowed
       return serverFields[1].equalsIgnoreCase(clientFields[1]);
     } else {
-      ServiceRequestForm srf = Utility.fromJson(requestJson, ServiceRequestForm.class);
+      ServiceRequestForm srf = ParsedPayloadInterceptor.parse(requestContext, ServiceRequestForm.class);
 
       // If this is an external service request, only the local Gatekeeper can send this method
       if (srf.getOrchestrationFlags().get("externalServiceRequest")) {
@@ -9,9 +9,9 @@
 
 package eu.arrowhead.core.orchestrator.filter;
 
-import eu.arrowhead.common.Utility;
+import eu.arrowhead.common.CoreServiceResolver;
 import eu.arrowhead.common.exception.UnavailableServerException;
-import eu.arrowhead.core.orchestrator.OrchestratorMain;
+import eu.arrowhead.common.json.JsonCodec;
 import javax.annotation.Priority;
 import javax.ws.rs.Priorities;
 import javax.ws.rs.container.ContainerRequestContext;
@@ -27,9 +27,10 @@ public class UnavailableFilter implements ContainerResponseFilter {
   @Override
   public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
     if (responseContext.getStatus() == Status.SERVICE_UNAVAILABLE.getStatusCode()) {
-      String response = Utility.toPrettyJson(null, responseContext.getEntity());
+      String response = responseContext.hasEntity() ? JsonCodec.toJson(responseContext.getEntity()) : null;
       if (response != null && response.contains(UnavailableServerException.class.getName())) {
-        Thread querySR = new Thread(OrchestratorMain::getCoreSystemServiceUris);
+        //Queries the Service Registry again for the providers of the core services (the cached ones are kept if the SR is down)
+        Thread querySR = new Thread(CoreServiceResolver::refresh);
 
         querySR.start();
       }
@@ -39,9 +39,12 @@ import eu.arrowhead.common.messages.QoSVerify;
 import eu.arrowhead.qos.algorithms.VerifierAlgorithmFactory;
 import eu.arrowhead.qos.drivers.DriversFactory;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status.Family;
 import org.apache.log4j.Logger;
@@ -72,13 +75,18 @@ final class QoSManagerService {
     NetworkDevice consumerNetworkDevice = getNetworkDeviceFromSystem(message.getConsumer());
     List<ResourceReservation> consumerReservations = getReservationsFromSystem(message.getConsumer());
 
+    // The network devices and reservations of every provider are fetched with a fixed number of queries up front
+    List<ArrowheadSystem> retrievedProviders = getSystems(message.getProviders());
+    Map<String, NetworkDevice> providerNetworkDevices = getNetworkDevicesFromSystems(retrievedProviders);
+    Map<String, List<ResourceReservation>> providerReservationMap = getReservationsFromSystems(retrievedProviders);
+
     QoSVerificationResponse qosVerificationResponse = new QoSVerificationResponse();
     for (ArrowheadSystem provider : message.getProviders()) {
-      NetworkDevice providerNetworkDevice = getNetworkDeviceFromSystem(provider);
+      NetworkDevice providerNetworkDevice = providerNetworkDevices.get(provider.getSystemName());
       if (providerNetworkDevice == null) {
         continue;
       }
-      List<ResourceReservation> providerReservations = getReservationsFromSystem(provider);
+      List<ResourceReservation> providerReservations = providerReservationMap.getOrDefault(provider.getSystemName(), new ArrayList<>());
 
       Network network = providerNetworkDevice.getNetwork();
       if (network == null) {
@@ -136,6 +144,48 @@ final class QoSManagerService {
     return reservations;
   }
 
+  private static List<ArrowheadSystem> getSystems(List<ArrowheadSystem> systems) {
+    Set<String> systemNames = new HashSet<>();
+    for (ArrowheadSystem system : systems) {
+      systemNames.add(system.getSystemName());
+    }
+    return dm.getAllByKeys(ArrowheadSystem.class, "systemName", systemNames);
+  }
+
+  // Returns the network devices of the (already retrieved) systems, mapped by the system names
+  private static Map<String, NetworkDevice> getNetworkDevicesFromSystems(List<ArrowheadSystem> retrievedSystems) {
+    Map<String, NetworkDevice> networkDevices = new HashMap<>();
+    for (DeployedSystem deployedSystem : dm.getAllByKeys(DeployedSystem.class, "system", retrievedSystems)) {
+      networkDevices.put(deployedSystem.getSystem().getSystemName(), deployedSystem.getNetworkDevice());
+    }
+    return networkDevices;
+  }
+
+  // Returns the reservations of the (already retrieved) systems, mapped by the system names
+  private static Map<String, List<ResourceReservation>> getReservationsFromSystems(List<ArrowheadSystem> retrievedSystems) {
+    Map<String, Collection<?>> keyMap = new HashMap<>();
+    keyMap.put("consumer", retrievedSystems);
+    keyMap.put("provider", retrievedSystems);
+    List<MessageStream> messageStreams = dm.getAllOfEitherByKeys(MessageStream.class, keyMap);
+
+    Set<String> systemNames = new HashSet<>();
+    for (ArrowheadSystem system : retrievedSystems) {
+      systemNames.add(system.getSystemName());
+    }
+    Map<String, List<ResourceReservation>> reservations = new HashMap<>();
+    for (MessageStream ms : messageStreams) {
+      String consumerName = ms.getConsumer().getSystemName();
+      String providerName = ms.getProvider().getSystemName();
+      if (systemNames.contains(consumerName)) {
+        reservations.computeIfAbsent(consumerName, k -> new ArrayList<>()).add(ms.getQualityOfService());
+      }
+      if (systemNames.contains(providerName) && !providerName.equals(consumerName)) {
+        reservations.computeIfAbsent(providerName, k -> new ArrayList<>()).add(ms.getQualityOfService());
+      }
+    }
+    return reservations;
+  }
+
   /**
    * Reserves a QoS on the consumer and provider stream.
    *
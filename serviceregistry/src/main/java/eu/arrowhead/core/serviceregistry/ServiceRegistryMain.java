@@ -14,7 +14,8 @@ import eu.arrowhead.common.ArrowheadMain;
 import eu.arrowhead.common.Utility;
 import eu.arrowhead.common.misc.CoreSystem;
 import eu.arrowhead.common.misc.TypeSafeProperties;
-import java.util.Collections;
+import eu.arrowhead.core.serviceregistry.filter.AccessControlFilter;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.Timer;
@@ -49,9 +50,8 @@ public class ServiceRegistryMain extends ArrowheadMain {
   }
 
   private ServiceRegistryMain(String[] args) {
-    Set<Class<?>> classes = new HashSet<>(Collections.singleton(ServiceRegistryResource.class));
-    String[] packages = {"eu.arrowhead.common", "eu.arrowhead.core.serviceregistry.filter"};
-    init(CoreSystem.SERVICE_REGISTRY_DNS, args, classes, packages);
+    Set<Class<?>> classes = new HashSet<>(Arrays.asList(ServiceRegistryResource.class, AccessControlFilter.class));
+    init(CoreSystem.SERVICE_REGISTRY_DNS, args, classes);
 
     System.setProperty("dns.server", DNS_ADDRESS);
     System.setProperty("dnssd.domain", DNS_DOMAIN);
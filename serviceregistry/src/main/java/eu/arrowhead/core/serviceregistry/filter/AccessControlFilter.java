@@ -12,7 +12,9 @@ package eu.arrowhead.core.serviceregistry.filter;
 import eu.arrowhead.common.Utility;
 import eu.arrowhead.common.database.ServiceRegistryEntry;
 import eu.arrowhead.common.exception.AuthException;
+import eu.arrowhead.common.filter.ParsedPayloadInterceptor;
 import eu.arrowhead.common.misc.SecurityUtils;
+import java.io.IOException;
 import javax.annotation.Priority;
 import javax.ws.rs.Priorities;
 import javax.ws.rs.container.ContainerRequestContext;
@@ -33,13 +35,12 @@ public class AccessControlFilter implements ContainerRequestFilter {
   private Configuration configuration;
 
   @Override
-  public void filter(ContainerRequestContext requestContext) {
+  public void filter(ContainerRequestContext requestContext) throws IOException {
     SecurityContext sc = requestContext.getSecurityContext();
     String requestTarget = Utility.stripEndSlash(requestContext.getUriInfo().getRequestUri().toString());
     if (sc.isSecure() && !isGetItCalled(requestContext.getMethod(), requestTarget)) {
-      String requestJson = Utility.getRequestPayload(requestContext.getEntityStream());
       String commonName = SecurityUtils.getCertCNFromSubject(sc.getUserPrincipal().getName());
-      if (isClientAuthorized(commonName, requestTarget, requestContext.getMethod(), requestJson)) {
+      if (isClientAuthorized(commonName, requestTarget, requestContext.getMethod(), requestContext)) {
         log.info("SSL identification is successful! Cert: " + commonName);
       } else {
         log.error(commonName + " is unauthorized to access " + requestTarget);
@@ -52,7 +53,8 @@ public class AccessControlFilter implements ContainerRequestFilter {
     return method.equals("GET") && (requestTarget.endsWith("serviceregistry") || requestTarget.endsWith("mgmt"));
   }
 
-  private boolean isClientAuthorized(String clientCN, String requestTarget, String methodType, String requestJson) {
+  private boolean isClientAuthorized(String clientCN, String requestTarget, String methodType, ContainerRequestContext requestContext)
+      throws IOException {
     String serverCN = (String) configuration.getProperty("server_common_name");
 
     if (!SecurityUtils.isKeyStoreCNArrowheadValid(clientCN)) {
@@ -63,9 +65,12 @@ public class AccessControlFilter implements ContainerRequestFilter {
     String[] serverFields = serverCN.split("\\.", 2);
     String[] clientFields = clientCN.split("\\.", 2);
     // serverFields contains: coreSystemName, cloudName.operator.arrowhead.eu
-    if (requestTarget.endsWith("register") || requestTarget.endsWith("remove")) {
+    if (requestTarget.endsWith("metrics")) {
+      // Only the local System Operator can scrape the metrics
+      return clientCN.equalsIgnoreCase("sysop." + serverFields[1]);
+    } else if (requestTarget.endsWith("register") || requestTarget.endsWith("remove")) {
       // All requests from the local cloud are allowed
-      ServiceRegistryEntry entry = Utility.fromJson(requestJson, ServiceRegistryEntry.class);
+      ServiceRegistryEntry entry = ParsedPayloadInterceptor.parse(requestContext, ServiceRegistryEntry.class);
 
       String providerName = entry.getProvider().getSystemName().replaceAll("_", "");
       if (!providerName.equalsIgnoreCase(clientFields[0])) {
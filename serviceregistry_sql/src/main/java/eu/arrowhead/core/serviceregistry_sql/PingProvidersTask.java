@@ -11,7 +11,9 @@ package eu.arrowhead.core.serviceregistry_sql;
 
 
 import eu.arrowhead.common.database.ServiceRegistryEntry;
+import eu.arrowhead.common.misc.ScrollableIterator;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.TimerTask;
 import org.apache.log4j.Logger;
@@ -28,19 +30,21 @@ class PingProvidersTask extends TimerTask {
 
   //Removes Service Registry entries with offline/inactive providers
   private int pingAndRemoveServices() {
-    List<ServiceRegistryEntry> srEntries = ServiceRegistryResource.dm.getAll(ServiceRegistryEntry.class, null);
-
-    boolean connectionIsAlive;
-    int deleteCount = 0;
-    for (ServiceRegistryEntry entry : srEntries) {
-      connectionIsAlive = RegistryUtils.pingHost(entry.getProvider().getAddress(), entry.getPort(), ServiceRegistryMain.PING_TIMEOUT);
-      if (!connectionIsAlive) {
-        ServiceRegistryResource.dm.delete(entry);
-        deleteCount++;
+    //The small projections are loaded first, so the session and its cursor are closed before the (slow) pings start
+    List<RegistryEntrySummary> srEntries = new ArrayList<>();
+    try (ScrollableIterator<RegistryEntrySummary> entries = ServiceRegistryResource.dm
+        .stream(ServiceRegistryEntry.class, RegistryEntrySummary.class, RegistryEntrySummary.PROJECTION)) {
+      entries.forEachRemaining(srEntries::add);
+    }
+
+    List<Integer> inactiveEntryIds = new ArrayList<>();
+    for (RegistryEntrySummary entry : srEntries) {
+      if (!RegistryUtils.pingHost(entry.getAddress(), entry.getPort(), ServiceRegistryMain.PING_TIMEOUT)) {
+        inactiveEntryIds.add(entry.getId());
       }
     }
 
-    return deleteCount;
+    return ServiceRegistryResource.dm.deleteAllByKeys(ServiceRegistryEntry.class, "id", inactiveEntryIds).getSucceeded().size();
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.core.serviceregistry_sql;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Projection of a {@link eu.arrowhead.common.database.ServiceRegistryEntry} with only the columns the periodic sweeps need, so they can stream the
+ * service registry table without loading the services and providers of the entries.
+ */
+public class RegistryEntrySummary {
+
+  //Properties of this class, mapped to the entity properties they are selected from
+  static final Map<String, String> PROJECTION = new HashMap<>();
+
+  static {
+    PROJECTION.put("id", "id");
+    PROJECTION.put("address", "provider.address");
+    PROJECTION.put("port", "port");
+    PROJECTION.put("endOfValidity", "endOfValidity");
+  }
+
+  private int id;
+  private String address;
+  private Integer port;
+  private LocalDateTime endOfValidity;
+
+  public RegistryEntrySummary() {
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public void setId(int id) {
+    this.id = id;
+  }
+
+  public String getAddress() {
+    return address;
+  }
+
+  public void setAddress(String address) {
+    this.address = address;
+  }
+
+  public Integer getPort() {
+    return port;
+  }
+
+  public void setPort(Integer port) {
+    this.port = port;
+  }
+
+  public LocalDateTime getEndOfValidity() {
+    return endOfValidity;
+  }
+
+  public void setEndOfValidity(LocalDateTime endOfValidity) {
+    this.endOfValidity = endOfValidity;
+  }
+
+}
@@ -11,51 +11,57 @@ package eu.arrowhead.core.serviceregistry_sql;
 
 import eu.arrowhead.common.DatabaseManager;
 import eu.arrowhead.common.database.ServiceRegistryEntry;
+import eu.arrowhead.common.misc.ScrollableIterator;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 import org.apache.log4j.Logger;
+import org.hibernate.criterion.Restrictions;
 
 class RemoveExpiredServicesTask extends TimerTask {
 
   private static final DatabaseManager dm = DatabaseManager.getInstance();
   private static final Logger log = Logger.getLogger(RemoveExpiredServicesTask.class.getName());
 
-  private ServiceRegistryEntry entry;
+  private Integer entryId;
 
   RemoveExpiredServicesTask() {
   }
 
-  private RemoveExpiredServicesTask(ServiceRegistryEntry entry) {
-    this.entry = entry;
+  private RemoveExpiredServicesTask(int entryId) {
+    this.entryId = entryId;
   }
 
   @Override
   public void run() {
     int deleteCount = 0;
-    if (entry == null) {
-      List<ServiceRegistryEntry> srList = dm.getAll(ServiceRegistryEntry.class, null);
-
-      for (ServiceRegistryEntry entry : srList) {
-        if (entry.getEndOfValidity() != null) {
-          if (LocalDateTime.now().isAfter(entry.getEndOfValidity())) {
-            dm.delete(entry);
-            deleteCount++;
+    if (entryId == null) {
+      //Only the entries expiring before the next run are selected: the expired ones are deleted now, the rest are scheduled for removal
+      LocalDateTime now = LocalDateTime.now();
+      LocalDateTime nextRun = now.plus(ServiceRegistryMain.TTL_INTERVAL * 60 * 1000 + 200, ChronoUnit.MILLIS); // + 200 extra ms to avoid edge cases
+      List<Integer> expiredEntryIds = new ArrayList<>();
+      try (ScrollableIterator<RegistryEntrySummary> srEntries = dm
+          .stream(ServiceRegistryEntry.class, RegistryEntrySummary.class, RegistryEntrySummary.PROJECTION, Restrictions.lt("endOfValidity", nextRun))) {
+        while (srEntries.hasNext()) {
+          RegistryEntrySummary entry = srEntries.next();
+          if (now.isAfter(entry.getEndOfValidity())) {
+            expiredEntryIds.add(entry.getId());
           } else {
-            long ttl = Duration.between(LocalDateTime.now(), entry.getEndOfValidity()).toMillis();
-            if (ttl < (ServiceRegistryMain.TTL_INTERVAL * 60 * 1000 + 200)) { // minutes -> milliseconds conversion + 200 extra ms to avoid edge cases
-              TimerTask removeTask = new RemoveExpiredServicesTask(entry);
-              Timer timer = new Timer();
-              timer.schedule(removeTask, ttl);
-            }
+            long ttl = Duration.between(now, entry.getEndOfValidity()).toMillis();
+            TimerTask removeTask = new RemoveExpiredServicesTask(entry.getId());
+            Timer timer = new Timer();
+            timer.schedule(removeTask, ttl);
           }
         }
       }
+      deleteCount = dm.deleteAllByKeys(ServiceRegistryEntry.class, "id", expiredEntryIds).getSucceeded().size();
     } else {
-      dm.delete(entry);
-      deleteCount++;
+      deleteCount = dm.deleteAllByKeys(ServiceRegistryEntry.class, "id", Collections.singleton(entryId)).getSucceeded().size();
     }
 
     log.debug("Removed " + deleteCount + " expired entries from SR database at " + LocalDateTime.now());
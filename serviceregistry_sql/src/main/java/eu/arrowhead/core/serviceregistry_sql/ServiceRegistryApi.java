@@ -15,6 +15,11 @@ import eu.arrowhead.common.database.ArrowheadSystem;
 import eu.arrowhead.common.database.ServiceRegistryEntry;
 import eu.arrowhead.common.exception.DataNotFoundException;
 import eu.arrowhead.common.messages.ServiceQueryResult;
+import eu.arrowhead.common.misc.Page;
+import eu.arrowhead.common.misc.Pagination;
+import eu.arrowhead.common.misc.ScrollableIterator;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import javax.ws.rs.Consumes;
@@ -24,9 +29,13 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
 import org.apache.log4j.Logger;
 
 @Path("serviceregistry/mgmt")
@@ -44,35 +53,53 @@ public class ServiceRegistryApi {
     return "serviceregistry/mgmt got it";
   }
 
+  /**
+   * Returns the Service Registry entries, one page at a time (see {@link Pagination}), optionally filtered by the service definition and by the
+   * system name of the provider.
+   */
   @GET
   @Path("all")
-  public Response getAllServices() {
-    List<ServiceRegistryEntry> providedServices = dm.getAll(ServiceRegistryEntry.class, null);
+  public Response getAllServices(@QueryParam("service") String service, @QueryParam("provider") String provider, @QueryParam("after") Integer after,
+                                 @QueryParam("limit") Integer limit, @QueryParam("stream") boolean stream, @Context UriInfo uriInfo,
+                                 @Context HttpHeaders headers) {
+    if (service != null) {
+      restrictionMap.put("providedService.serviceDefinition", service);
+    }
+    if (provider != null) {
+      restrictionMap.put("provider.systemName", provider);
+    }
+    if (stream) {
+      return Pagination.streamAll(ServiceRegistryEntry.class, restrictionMap, "serviceQueryData", ServiceRegistryEntry::fromDatabase, headers);
+    }
 
-    for (ServiceRegistryEntry entry : providedServices) {
+    Page<ServiceRegistryEntry> providedServices = dm.getPage(ServiceRegistryEntry.class, restrictionMap, "id", after, Pagination.getLimit(limit));
+    for (ServiceRegistryEntry entry : providedServices.getItems()) {
       entry.fromDatabase();
     }
 
-    ServiceQueryResult result = new ServiceQueryResult(providedServices);
+    ServiceQueryResult result = new ServiceQueryResult(providedServices.getItems());
     log.info("getAllServices returns " + result.getServiceQueryData().size() + " entries");
     if (result.getServiceQueryData().isEmpty()) {
       return Response.status(Status.NO_CONTENT).entity(result).build();
     } else {
-      return Response.status(Response.Status.OK).entity(result).build();
+      return Pagination.toResponse(providedServices, result, uriInfo);
     }
   }
 
   @DELETE
   @Path("all")
   public Response removeAllServices() {
-    List<ServiceRegistryEntry> providedServices = dm.getAll(ServiceRegistryEntry.class, null);
-    if (providedServices.isEmpty()) {
+    List<Integer> entryIds = new ArrayList<>();
+    try (ScrollableIterator<Integer> ids = dm.stream(ServiceRegistryEntry.class, Integer.class, Collections.singletonMap("id", "id"))) {
+      while (ids.hasNext()) {
+        entryIds.add(ids.next());
+      }
+    }
+    if (entryIds.isEmpty()) {
       log.info("removeAllServices had no effect");
       return Response.status(Status.NO_CONTENT).build();
     }
-    for (ServiceRegistryEntry entry : providedServices) {
-      dm.delete(entry);
-    }
+    dm.deleteAllByKeys(ServiceRegistryEntry.class, "id", entryIds);
     log.info("removeAllServices returns successfully");
     return Response.status(Status.OK).build();
   }
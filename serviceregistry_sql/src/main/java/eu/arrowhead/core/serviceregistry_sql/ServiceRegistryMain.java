@@ -11,6 +11,7 @@ package eu.arrowhead.core.serviceregistry_sql;
 
 import eu.arrowhead.common.ArrowheadMain;
 import eu.arrowhead.common.misc.CoreSystem;
+import eu.arrowhead.core.serviceregistry_sql.filter.AccessControlFilter;
 import eu.arrowhead.core.serviceregistry_sql.support.OldServiceRegResource;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -29,9 +30,9 @@ public class ServiceRegistryMain extends ArrowheadMain {
   }
 
   private ServiceRegistryMain(String[] args) {
-    Set<Class<?>> classes = new HashSet<>(Arrays.asList(ServiceRegistryResource.class, ServiceRegistryApi.class, OldServiceRegResource.class));
-    String[] packages = {"eu.arrowhead.common", "eu.arrowhead.core.serviceregistry_sql.filter"};
-    init(CoreSystem.SERVICE_REGISTRY_SQL, args, classes, packages);
+    Set<Class<?>> classes = new HashSet<>(Arrays.asList(ServiceRegistryResource.class, ServiceRegistryApi.class, OldServiceRegResource.class,
+                                                           AccessControlFilter.class));
+    init(CoreSystem.SERVICE_REGISTRY_SQL, args, classes);
 
     //if provider ping is scheduled, start the TimerTask that provides it
     if (props.getBooleanProperty("ping_scheduled", false)) {
@@ -52,29 +52,32 @@ public class ServiceRegistryResource {
     entry.missingFields(true, false, new HashSet<>(Arrays.asList("interfaces", "address")));
     entry.toDatabase();
 
-    restrictionMap.put("serviceDefinition", entry.getProvidedService().getServiceDefinition());
-    ArrowheadService service = dm.get(ArrowheadService.class, restrictionMap);
-    if (service == null) {
-      service = dm.save(entry.getProvidedService());
-    } else {
-      service.setInterfaces(entry.getProvidedService().getInterfaces());
-      dm.merge(service);
-    }
-    entry.setProvidedService(service);
-
-    restrictionMap.clear();
-    restrictionMap.put("systemName", entry.getProvider().getSystemName());
-    ArrowheadSystem provider = dm.get(ArrowheadSystem.class, restrictionMap);
-    if (provider == null) {
-      provider = dm.save(entry.getProvider());
-    } else {
-      provider.setAddress(entry.getProvider().getAddress());
-      provider.setAuthenticationInfo(entry.getProvider().getAuthenticationInfo());
-      dm.merge(provider);
-    }
-    entry.setProvider(provider);
-
-    ServiceRegistryEntry savedEntry = dm.save(entry);
+    //The service, the provider and the entry are written in one transaction, so concurrent registrations can not leave partial writes behind
+    ServiceRegistryEntry savedEntry = dm.inTransaction(session -> {
+      restrictionMap.put("serviceDefinition", entry.getProvidedService().getServiceDefinition());
+      ArrowheadService service = dm.get(ArrowheadService.class, restrictionMap);
+      if (service == null) {
+        service = dm.save(entry.getProvidedService());
+      } else {
+        service.setInterfaces(entry.getProvidedService().getInterfaces());
+        dm.merge(service);
+      }
+      entry.setProvidedService(service);
+
+      restrictionMap.clear();
+      restrictionMap.put("systemName", entry.getProvider().getSystemName());
+      ArrowheadSystem provider = dm.get(ArrowheadSystem.class, restrictionMap);
+      if (provider == null) {
+        provider = dm.save(entry.getProvider());
+      } else {
+        provider.setAddress(entry.getProvider().getAddress());
+        provider.setAuthenticationInfo(entry.getProvider().getAuthenticationInfo());
+        dm.merge(provider);
+      }
+      entry.setProvider(provider);
+
+      return dm.save(entry);
+    });
     savedEntry.fromDatabase();
     log.info("New ServiceRegistryEntry " + entry.toString() + " is saved.");
     return Response.status(Status.CREATED).entity(savedEntry).build();
@@ -117,19 +120,24 @@ public class ServiceRegistryResource {
   public Response removeService(ServiceRegistryEntry entry) {
     entry.missingFields(true, false, null);
 
-    restrictionMap.put("serviceDefinition", entry.getProvidedService().getServiceDefinition());
-    ArrowheadService service = dm.get(ArrowheadService.class, restrictionMap);
-
-    restrictionMap.clear();
-    restrictionMap.put("systemName", entry.getProvider().getSystemName());
-    ArrowheadSystem provider = dm.get(ArrowheadSystem.class, restrictionMap);
-
-    restrictionMap.clear();
-    restrictionMap.put("providedService", service);
-    restrictionMap.put("provider", provider);
-    ServiceRegistryEntry retrievedEntry = dm.get(ServiceRegistryEntry.class, restrictionMap);
+    ServiceRegistryEntry retrievedEntry = dm.inTransaction(session -> {
+      restrictionMap.put("serviceDefinition", entry.getProvidedService().getServiceDefinition());
+      ArrowheadService service = dm.get(ArrowheadService.class, restrictionMap);
+
+      restrictionMap.clear();
+      restrictionMap.put("systemName", entry.getProvider().getSystemName());
+      ArrowheadSystem provider = dm.get(ArrowheadSystem.class, restrictionMap);
+
+      restrictionMap.clear();
+      restrictionMap.put("providedService", service);
+      restrictionMap.put("provider", provider);
+      ServiceRegistryEntry foundEntry = dm.get(ServiceRegistryEntry.class, restrictionMap);
+      if (foundEntry != null) {
+        dm.delete(foundEntry);
+      }
+      return foundEntry;
+    });
     if (retrievedEntry != null) {
-      dm.delete(retrievedEntry);
       retrievedEntry.fromDatabase();
       log.info("ServiceRegistryEntry " + retrievedEntry.toString() + " deleted.");
       return Response.status(Status.OK).entity(retrievedEntry).build();
@@ -0,0 +1,67 @@
+/*
+ *  Copyright (c) 2018 AITIA International Inc.
+ *
+ *  This work is part of the Productive 4.0 innovation project, which receives grants from the
+ *  European Commissions H2020 research and innovation programme, ECSEL Joint Undertaking
+ *  (project no. 737459), the free state of Saxony, the German Federal Ministry of Education and
+ *  national funding authorities from involved countries.
+ */
+
+package eu.arrowhead.core.standalone;
+
+import eu.arrowhead.core.authorization.AuthorizationMain;
+import eu.arrowhead.core.eventhandler.EventHandlerMain;
+import eu.arrowhead.core.gatekeeper.GatekeeperMain;
+import eu.arrowhead.core.orchestrator.OrchestratorMain;
+import eu.arrowhead.core.serviceregistry_sql.ServiceRegistryMain;
+import eu.arrowhead.qos.QoSMain;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+
+/**
+ * Runs the Service Registry, Authorization, Gatekeeper, Event Handler, QoS Manager and Orchestrator core systems in one JVM, on the embedded database
+ * (see config/default.conf). Meant for low latency single node deployments and local benchmarking. The core systems share one config file, so every
+ * system uses its default port, and only the insecure mode is supported.
+ */
+public class StandaloneMain {
+
+  public static void main(String[] args) throws IOException {
+    System.out.println("Working directory: " + System.getProperty("user.dir"));
+    List<String> argList = Arrays.asList(args);
+    if (argList.contains("-tls")) {
+      throw new ServiceConfigurationError("The standalone core systems can only run in insecure mode, start the core systems one by one for TLS!");
+    }
+
+    //The core systems run as daemons, and shut down in their own shutdown hooks
+    String[] systemArgs = argList.contains("-d") ? new String[]{"-daemon", "-d"} : new String[]{"-daemon"};
+    //Every core system registers its services into the Service Registry, and the Orchestrator looks up the others at startup
+    ServiceRegistryMain.main(systemArgs);
+    AuthorizationMain.main(systemArgs);
+    GatekeeperMain.main(systemArgs);
+    EventHandlerMain.main(systemArgs);
+    QoSMain.main(systemArgs);
+    OrchestratorMain.main(systemArgs);
+    System.out.println("All core systems started.");
+
+    if (argList.contains("-daemon")) {
+      System.out.println("In daemon mode, process will terminate for TERM signal...");
+    } else {
+      System.out.println("Type \"stop\" to shutdown the core systems...");
+      BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
+      String input = "";
+      while (!"stop".equals(input)) {
+        input = br.readLine();
+        if (input == null) {
+          break;
+        }
+      }
+      br.close();
+      System.exit(0);
+    }
+  }
+
+}